@@ -0,0 +1,94 @@
+package com.socialmedia.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    // Timeline fan-out runs off the request thread; when the queue is full the
+    // caller does the work itself rather than dropping timeline entries.
+    @Bean(name = "timelineExecutor")
+    public Executor timelineExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("timeline-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // BCrypt is pure CPU: one worker per core and a short queue; when both are full the
+    // login is refused with 429 (PasswordHashingPool) instead of waiting on a request thread.
+    @Bean(name = "passwordExecutor")
+    public Executor passwordExecutor(@Value("${auth.hashing.workers:0}") int workers,
+            @Value("${auth.hashing.queue-capacity:32}") int queueCapacity) {
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Stores the images of one post in parallel. Each task stages and renders its image
+    // itself, so this pool also bounds those decodes; a full queue makes the caller wait.
+    @Bean(name = "uploadExecutor")
+    public Executor uploadExecutor(@Value("${uploads.workers:8}") int workers,
+            @Value("${uploads.queue-capacity:64}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("upload-");
+        executor.setRejectedExecutionHandler(waitForRoom());
+        executor.initialize();
+        return executor;
+    }
+
+    // Image decoding holds whole bitmaps in memory, so it is capped at a few threads.
+    // Uploads wait for their own result; once the queue is full they also wait for room
+    // in it, which slows them down without letting more decodes run at once.
+    @Bean(name = "imageExecutor")
+    public Executor imageExecutor(@Value("${images.workers:2}") int workers,
+            @Value("${images.queue-capacity:32}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setRejectedExecutionHandler(waitForRoom());
+        executor.initialize();
+        return executor;
+    }
+
+    // Blocks the submitting thread until the full queue has room. Unlike CallerRunsPolicy it
+    // never runs the task on the caller, so a pool's size stays a hard cap on concurrent work.
+    private static RejectedExecutionHandler waitForRoom() {
+        return (task, pool) -> {
+            try {
+                if (pool.isShutdown()) {
+                    throw new RejectedExecutionException("Executor is shut down");
+                }
+                pool.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for queue space", e);
+            }
+        };
+    }
+}
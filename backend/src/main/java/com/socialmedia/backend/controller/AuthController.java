@@ -3,16 +3,17 @@ package com.socialmedia.backend.controller;
 import com.socialmedia.backend.dto.AuthResponse;
 import com.socialmedia.backend.dto.LoginRequest;
 import com.socialmedia.backend.dto.SignupRequest;
-import com.socialmedia.backend.model.User;
-import com.socialmedia.backend.repository.UserRepository;
-import com.socialmedia.backend.security.JwtTokenUtil;
 import com.socialmedia.backend.service.AuthService;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -20,28 +21,25 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
-    private final JwtTokenUtil jwtTokenUtil;
-    private final UserRepository userRepository;
 
+    // Both return futures: Tomcat's thread is released while the password pool hashes
     @PostMapping("/signup")
-    public ResponseEntity<AuthResponse> signup(@RequestBody SignupRequest request) {
-        return ResponseEntity.ok(authService.signup(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> signup(@RequestBody SignupRequest request,
+            HttpServletRequest httpRequest) {
+        return authService.signup(request, httpRequest.getRemoteAddr()).thenApply(ResponseEntity::ok);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@RequestBody LoginRequest request) {
-        return ResponseEntity.ok(authService.login(request));
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
+        return authService.login(request, httpRequest.getRemoteAddr()).thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/user")
-    public ResponseEntity<?> getUserDetails(@RequestHeader("Authorization") String token) {
-        String username = jwtTokenUtil.getUsernameFromToken(token.replace("Bearer ", ""));
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
+    public ResponseEntity<?> getUserDetails(@CurrentUser AuthenticatedUser currentUser) {
         Map<String, String> response = new HashMap<>();
-        response.put("email", user.getEmail());
-        response.put("username", user.getUsername());
+        response.put("email", currentUser.getEmail());
+        response.put("username", currentUser.getUsername());
 
         return ResponseEntity.ok(response);
     }
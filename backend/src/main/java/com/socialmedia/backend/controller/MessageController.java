@@ -3,6 +3,8 @@ package com.socialmedia.backend.controller;
 import com.socialmedia.backend.dto.ConversationResponse;
 import com.socialmedia.backend.dto.MessageResponse;
 import com.socialmedia.backend.service.MessageService;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,12 +20,12 @@ public class MessageController {
 
     @PostMapping("/{receiverUsername}")
     public ResponseEntity<MessageResponse> sendMessage(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable String receiverUsername,
             @RequestParam("content") String content) {
         try {
             MessageResponse message = messageService.sendMessage(
-                token.replace("Bearer ", ""), receiverUsername, content);
+                currentUser, receiverUsername, content);
             return ResponseEntity.ok(message);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
@@ -32,11 +34,11 @@ public class MessageController {
 
     @GetMapping("/{otherUsername}")
     public ResponseEntity<List<MessageResponse>> getConversation(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @PathVariable String otherUsername) {
         try {
             return ResponseEntity.ok(
-                messageService.getConversation(token.replace("Bearer ", ""), otherUsername));
+                messageService.getConversation(currentUser, otherUsername));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
         }
@@ -44,9 +46,8 @@ public class MessageController {
 
     @GetMapping("/conversations")
     public ResponseEntity<List<ConversationResponse>> getConversations(
-            @RequestHeader("Authorization") String token) {
-        String jwt = token.replace("Bearer ", "");
-        List<ConversationResponse> conversations = messageService.getConversations(jwt);
+            @CurrentUser AuthenticatedUser currentUser) {
+        List<ConversationResponse> conversations = messageService.getConversations(currentUser);
         return ResponseEntity.ok(conversations);
     }
 }
\ No newline at end of file
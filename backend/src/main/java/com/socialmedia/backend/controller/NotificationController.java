@@ -2,6 +2,8 @@ package com.socialmedia.backend.controller;
 
 import com.socialmedia.backend.dto.NotificationResponse;
 import com.socialmedia.backend.service.NotificationService;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,7 +19,7 @@ public class NotificationController {
 
     @GetMapping
     public ResponseEntity<List<NotificationResponse>> getNotifications(
-            @RequestHeader("Authorization") String token) {
-        return ResponseEntity.ok(notificationService.getUserNotifications(token.replace("Bearer ", "")));
+            @CurrentUser AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(notificationService.getUserNotifications(currentUser));
     }
 }
\ No newline at end of file
@@ -1,9 +1,14 @@
 package com.socialmedia.backend.controller;
 
+import com.socialmedia.backend.dto.CommentPageResponse;
 import com.socialmedia.backend.dto.CommentResponse;
+import com.socialmedia.backend.dto.FeedCursor;
+import com.socialmedia.backend.dto.PostPageResponse;
 import com.socialmedia.backend.dto.PostResponse;
 import com.socialmedia.backend.service.PostService;
 import com.socialmedia.backend.repository.SavedPostRepository;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -20,14 +25,16 @@ public class PostController {
 
     @PostMapping
     public ResponseEntity<PostResponse> createPost(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @RequestParam("content") String content,
-            @RequestParam(value = "images", required = false) MultipartFile[] images) {
+            @RequestParam(value = "images", required = false) MultipartFile[] images,
+            @RequestParam(value = "uploadIds", required = false) List<String> uploadIds) {
         try {
             PostResponse newPost = postService.createPost(
-                    token.replace("Bearer ", ""),
+                    currentUser,
                     content,
-                    images);
+                    images,
+                    uploadIds);
             return ResponseEntity.ok(newPost);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -36,19 +43,52 @@ public class PostController {
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PostResponse>> getUserPosts(
-            @PathVariable Long userId, @RequestHeader("Authorization") String token) {
-        return ResponseEntity.ok(postService.getUserPosts(userId));
+            @PathVariable Long userId, @CurrentUser AuthenticatedUser currentUser) {
+        return ResponseEntity.ok(postService.getUserPosts(userId, currentUser));
     }
 
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts() {
-        return ResponseEntity.ok(postService.getAllPosts());
+    public ResponseEntity<PostPageResponse> getAllPosts(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "rank", required = false) String rank,
+            @CurrentUser(required = false) AuthenticatedUser currentUser) {
+        try {
+            if ("engagement".equals(rank)) {
+                return ResponseEntity.ok(postService.getRankedFeed(cursor, limit, currentUser));
+            }
+            if (rank != null && !rank.equals("recent")) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok(postService.getFeed(cursor, limit, currentUser));
+        } catch (FeedCursor.InvalidCursorException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostResponse>> getTrending(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return ResponseEntity.ok(postService.getTrending(limit, currentUser));
+    }
+
+    @GetMapping("/timeline")
+    public ResponseEntity<PostPageResponse> getTimeline(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(postService.getTimeline(currentUser, cursor, limit));
+        } catch (FeedCursor.InvalidCursorException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{postId}")
     public ResponseEntity<PostResponse> updatePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @RequestParam("content") String content,
             @RequestParam(value = "images", required = false) MultipartFile[] images,
             @RequestParam(value = "keptImages", required = false) String keptImages) {
@@ -57,7 +97,7 @@ public class PostController {
             PostResponse updatedPost = postService.updatePost(
                     postId,
                     content,
-                    token.replace("Bearer ", ""),
+                    currentUser,
                     images,
                     keptImages);
             return ResponseEntity.ok(updatedPost);
@@ -69,9 +109,9 @@ public class PostController {
     @DeleteMapping("/{postId}")
     public ResponseEntity<?> deletePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            postService.deletePost(postId, token.replace("Bearer ", ""));
+            postService.deletePost(postId, currentUser);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
 
@@ -82,9 +122,9 @@ public class PostController {
     @PostMapping("/{postId}/like")
     public ResponseEntity<?> likePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            boolean liked = postService.toggleLike(postId, token.replace("Bearer ", ""));
+            boolean liked = postService.toggleLike(postId, currentUser);
             return ResponseEntity.ok(Map.of("liked", liked));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -94,13 +134,13 @@ public class PostController {
     @PostMapping("/{postId}/comments")
     public ResponseEntity<CommentResponse> addComment(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @RequestParam("content") String content,
             @RequestParam(value = "image", required = false) MultipartFile image) {
         try {
             CommentResponse comment = postService.addComment(
                     postId,
-                    token.replace("Bearer ", ""),
+                    currentUser,
                     content,
                     image);
             return ResponseEntity.ok(comment);
@@ -110,19 +150,26 @@ public class PostController {
     }
 
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentResponse>> getComments(@PathVariable Long postId) {
-        return ResponseEntity.ok(postService.getComments(postId));
+    public ResponseEntity<CommentPageResponse> getComments(
+            @PathVariable Long postId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(postService.getComments(postId, cursor, limit));
+        } catch (FeedCursor.InvalidCursorException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{postId}/comments/{commentId}")
     public ResponseEntity<CommentResponse> editComment(
             @PathVariable Long postId,
             @PathVariable Long commentId,
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @RequestParam("content") String content) {
         try {
             CommentResponse updated = postService.editComment(
-                    postId, commentId, token.replace("Bearer ", ""), content);
+                    postId, commentId, currentUser, content);
             return ResponseEntity.ok(updated);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -133,9 +180,9 @@ public class PostController {
     public ResponseEntity<?> deleteComment(
             @PathVariable Long postId,
             @PathVariable Long commentId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            postService.deleteComment(postId, commentId, token.replace("Bearer ", ""));
+            postService.deleteComment(postId, commentId, currentUser);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -145,9 +192,9 @@ public class PostController {
     @PostMapping("/{postId}/share")
     public ResponseEntity<?> sharePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            postService.sharePost(postId, token.replace("Bearer ", ""));
+            postService.sharePost(postId, currentUser);
             return ResponseEntity.ok().build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -157,9 +204,9 @@ public class PostController {
     @GetMapping("/{postId}")
     public ResponseEntity<PostResponse> getPostById(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            PostResponse post = postService.getPostById(postId, token.replace("Bearer ", ""));
+            PostResponse post = postService.getPostById(postId, currentUser);
             return ResponseEntity.ok(post);
         } catch (Exception e) {
             return ResponseEntity.status(403).body(null);
@@ -169,9 +216,9 @@ public class PostController {
     @PostMapping("/{postId}/save")
     public ResponseEntity<?> savePost(
             @PathVariable Long postId,
-            @RequestHeader("Authorization") String token) {
+            @CurrentUser AuthenticatedUser currentUser) {
         try {
-            boolean saved = postService.toggleSave(postId, token.replace("Bearer ", ""));
+            boolean saved = postService.toggleSave(postId, currentUser);
             return ResponseEntity.ok(Map.of("saved", saved));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -179,11 +226,13 @@ public class PostController {
     }
 
     @GetMapping("/saved")
-    public ResponseEntity<List<PostResponse>> getSavedPosts(
-            @RequestHeader("Authorization") String token) {
+    public ResponseEntity<PostPageResponse> getSavedPosts(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit) {
         try {
-            return ResponseEntity.ok(postService.getSavedPosts(token.replace("Bearer ", "")));
-        } catch (Exception e) {
+            return ResponseEntity.ok(postService.getSavedPosts(currentUser, cursor, limit));
+        } catch (FeedCursor.InvalidCursorException e) {
             return ResponseEntity.badRequest().build();
         }
     }
@@ -2,11 +2,13 @@ package com.socialmedia.backend.controller;
 
 import com.socialmedia.backend.dto.ProfileResponse;
 import com.socialmedia.backend.dto.ProfileUpdateRequest;
+import com.socialmedia.backend.logging.EventLog;
 import com.socialmedia.backend.model.User;
-import com.socialmedia.backend.repository.UserRepository;
-import com.socialmedia.backend.security.JwtTokenUtil;
 import com.socialmedia.backend.service.FileUploadService;
+import com.socialmedia.backend.service.ImageDerivativeService;
 import com.socialmedia.backend.service.ProfileService;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 
@@ -28,22 +30,18 @@ public class ProfileController {
 
     private final ProfileService profileService;
     private final FileUploadService fileUploadService;
-    private final JwtTokenUtil jwtTokenUtil;
-    private final UserRepository userRepository;
+    private final EventLog eventLog;
 
     @GetMapping
-    public ResponseEntity<?> getProfile(@RequestHeader("Authorization") String token) {
-        String cleanToken = token.replace("Bearer ", "");
-        String username = jwtTokenUtil.getUsernameFromToken(cleanToken);
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        ProfileResponse dto = profileService.toProfileResponse(currentUser, currentUser);
+    public ResponseEntity<?> getProfile(@CurrentUser AuthenticatedUser currentUser) {
+        User user = profileService.getProfile(currentUser);
+        ProfileResponse dto = profileService.toProfileResponse(user, user);
         return ResponseEntity.ok(dto);
     }
 
     @PutMapping("/update")
     public ResponseEntity<?> updateProfile(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedUser currentUser,
             @RequestParam(value = "fullName", required = false) String fullName,
             @RequestParam(value = "bio", required = false) String bio,
             //@RequestParam(value = "website", required = false) String website,
@@ -54,7 +52,6 @@ public class ProfileController {
             @RequestParam(value = "profileImage", required = false) MultipartFile profileImage) {
 
         try {
-            String cleanToken = token.replace("Bearer ", "");
             ProfileUpdateRequest request = new ProfileUpdateRequest();
             request.setFullName(fullName);
             request.setBio(bio);
@@ -65,15 +62,15 @@ public class ProfileController {
 
             // Handle file uploads
             if (backgroundImage != null && !backgroundImage.isEmpty()) {
-                String backgroundPath = fileUploadService.saveFile(backgroundImage);
-                request.setBackgroundImage(backgroundPath);
+                request.setBackgroundImage(fileUploadService.saveImage(backgroundImage).getFull());
             }
             if (profileImage != null && !profileImage.isEmpty()) {
-                String profilePath = fileUploadService.saveFile(profileImage);
-                request.setProfileImage(profilePath);
+                ImageDerivativeService.Derivatives profile = fileUploadService.saveImage(profileImage);
+                request.setProfileImage(profile.getFull());
+                request.setProfileThumbnail(profile.getThumbnail());
             }
 
-            User updatedUser = profileService.updateProfile(cleanToken, request);
+            User updatedUser = profileService.updateProfile(currentUser, request);
             ProfileResponse dto = profileService.toProfileResponse(updatedUser, updatedUser);
             return ResponseEntity.ok(dto);
 
@@ -85,33 +82,25 @@ public class ProfileController {
     @GetMapping("/{username}")
     public ResponseEntity<?> getProfileByUsername(
             @PathVariable String username,
-            @RequestHeader("Authorization") String token) {
-        System.out.println("Fetching profile for username: " + username);
-        String cleanToken = token.replace("Bearer ", "");
-        String loggedInUsername = jwtTokenUtil.getUsernameFromToken(cleanToken);
-        System.out.println("Logged-in user: " + loggedInUsername);
-        User currentUser = userRepository.findByUsername(loggedInUsername)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+            @CurrentUser AuthenticatedUser currentUser) {
+        User viewer = profileService.getProfile(currentUser);
 
         User user = profileService.getProfileByUsername(username);
         if (user == null) {
-            System.out.println("User not found for username: " + username);
             return ResponseEntity.notFound().build();
         }
-        ProfileResponse dto = profileService.toProfileResponse(currentUser, user);
-        System.out.println("Returning profile for username: " + dto.getUsername());
+        ProfileResponse dto = profileService.toProfileResponse(viewer, user);
+        eventLog.event("profiles", "viewed", "viewer", currentUser.getId(), "profile", user.getId());
         return ResponseEntity.ok(dto);
     }
 
     @GetMapping("/following")
-    public ResponseEntity<?> getFollowing(@RequestHeader(value = "Authorization", required = false) String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
+    public ResponseEntity<?> getFollowing(@CurrentUser(required = false) AuthenticatedUser currentUser) {
+        if (currentUser == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing or invalid Authorization header");
         }
 
-        String username = jwtTokenUtil.getUsernameFromToken(token.replace("Bearer ", ""));
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = profileService.getProfile(currentUser);
 
         List<User> following = new ArrayList<>(user.getFollowing());
 
@@ -0,0 +1,84 @@
+package com.socialmedia.backend.controller;
+
+import com.socialmedia.backend.dto.UploadInitRequest;
+import com.socialmedia.backend.dto.UploadSessionResponse;
+import com.socialmedia.backend.service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+// Chunked uploads: POST to open, PUT /{uploadId}/chunks/{index} with raw bytes, POST /{uploadId}/complete
+@RestController
+@RequestMapping("/api/uploads")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:5173")
+public class UploadController {
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> init(
+            @CurrentUser AuthenticatedUser currentUser,
+            @RequestBody UploadInitRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.init(currentUser,
+                    request.getFileName(), request.getSize(), request.getSha256()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> status(
+            @CurrentUser AuthenticatedUser currentUser,
+            @PathVariable String uploadId) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.status(currentUser, uploadId));
+        } catch (Exception e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // The body is read straight from the request stream, never buffered as a multipart part
+    @PutMapping("/{uploadId}/chunks/{index}")
+    public ResponseEntity<UploadSessionResponse> writeChunk(
+            @CurrentUser AuthenticatedUser currentUser,
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            HttpServletRequest request) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.writeChunk(currentUser, uploadId,
+                    index, request.getInputStream()));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<UploadSessionResponse> complete(
+            @CurrentUser AuthenticatedUser currentUser,
+            @PathVariable String uploadId,
+            @RequestParam(value = "sha256", required = false) String sha256) {
+        try {
+            return ResponseEntity.ok(chunkedUploadService.complete(currentUser, uploadId, sha256));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(
+            @CurrentUser AuthenticatedUser currentUser,
+            @PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(currentUser, uploadId);
+            return ResponseEntity.ok().build();
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
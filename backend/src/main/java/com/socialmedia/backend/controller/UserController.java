@@ -1,9 +1,12 @@
 package com.socialmedia.backend.controller;
 
 import com.socialmedia.backend.dto.UserSuggestionDTO;
+import com.socialmedia.backend.logging.EventLog;
 import com.socialmedia.backend.model.User;
 import com.socialmedia.backend.repository.UserRepository;
-import com.socialmedia.backend.security.JwtTokenUtil;
+import com.socialmedia.backend.service.TimelineService;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import com.socialmedia.backend.security.CurrentUser;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.http.HttpStatus;
@@ -21,13 +24,13 @@ import java.util.stream.Collectors;
 public class UserController {
 
     private final UserRepository userRepository;
-    private final JwtTokenUtil jwtTokenUtil;
+    private final TimelineService timelineService;
+    private final EventLog eventLog;
 
     @GetMapping
-    public ResponseEntity<?> getAllUsers(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getAllUsers(@CurrentUser AuthenticatedUser principal) {
         try {
-            String username = jwtTokenUtil.getUsernameFromToken(token.replace("Bearer ", ""));
-            System.out.println("Fetching users for: " + username);
+            String username = principal.getUsername();
             List<UserSuggestionDTO> users = userRepository.findAll().stream()
                     .filter(u -> !u.getUsername().equals(username))
                     .map(u -> {
@@ -41,16 +44,15 @@ public class UserController {
                     .collect(Collectors.toList());
             return ResponseEntity.ok(users);
         } catch (Exception e) {
-            System.out.println("Error fetching users: " + e.getMessage());
+            eventLog.event("users-error", "list_failed", "user", principal.getId(), "error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error fetching users: " + e.getMessage());
         }
     }
 
     @GetMapping("/search")
-    public ResponseEntity<?> searchUsers(@RequestParam String query, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> searchUsers(@RequestParam String query, @CurrentUser AuthenticatedUser principal) {
         try {
-            String currentUsername = jwtTokenUtil.getUsernameFromToken(token.replace("Bearer ", ""));
-            System.out.println("Searching users for query: " + query + ", by user: " + currentUsername);
+            String currentUsername = principal.getUsername();
             List<UserSuggestionDTO> users = userRepository.searchUsers(query).stream()
                     .filter(u -> !u.getUsername().equals(currentUsername))
                     .map(u -> {
@@ -64,73 +66,65 @@ public class UserController {
                     .collect(Collectors.toList());
             return ResponseEntity.ok(users);
         } catch (Exception e) {
-            System.out.println("Error searching users: " + e.getMessage());
+            eventLog.event("users-error", "search_failed", "user", principal.getId(), "error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error searching users: " + e.getMessage());
         }
     }
 
     @PostMapping("/{username}/follow")
     @Transactional
-    public ResponseEntity<?> followUser(@PathVariable String username, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> followUser(@PathVariable String username, @CurrentUser AuthenticatedUser principal) {
         try {
-            System.out.println("Follow request for username: " + username + ", Token: " + token);
-            String currentUsername = jwtTokenUtil.getUsernameFromToken(token.replace("Bearer ", ""));
-            System.out.println("Current user: " + currentUsername);
+            String currentUsername = principal.getUsername();
             if (currentUsername.equals(username)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("You cannot follow yourself.");
             }
-            User currentUser = userRepository.findByUsername(currentUsername)
+            User currentUser = userRepository.findById(principal.getId())
                     .orElseThrow(() -> new RuntimeException("Current user not found: " + currentUsername));
             User targetUser = userRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Target user not found: " + username));
-            System.out.println("Current user found: " + currentUser.getUsername() + ", ID: " + currentUser.getId());
-            System.out.println("Target user found: " + targetUser.getUsername() + ", ID: " + targetUser.getId());
 
             if (!currentUser.isFollowing(targetUser)) {
                 currentUser.follow(targetUser); // Use User.follow for consistency
                 userRepository.save(currentUser);
                 userRepository.save(targetUser);
-                System.out.println("Successfully followed " + username);
-            } else {
-                System.out.println("Already following " + username);
+                timelineService.evict(currentUser.getId());
+                timelineService.onFollowersChanged(targetUser.getId());
+                eventLog.event("users", "followed", "user", currentUser.getId(), "target", targetUser.getId());
             }
             return ResponseEntity.ok().build();
         } catch (Exception e) {
-            System.out.println("Error in followUser: " + e.getMessage());
-            e.printStackTrace(); // Log full stack trace for debugging
+            eventLog.event("users-error", "follow_failed", "user", principal.getId(), "target", username,
+                    "error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error following user: " + e.getMessage());
         }
     }
 
     @PostMapping("/{username}/unfollow")
     @Transactional
-    public ResponseEntity<?> unfollowUser(@PathVariable String username, @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> unfollowUser(@PathVariable String username, @CurrentUser AuthenticatedUser principal) {
         try {
-            System.out.println("Unfollow request for username: " + username + ", Token: " + token);
-            String currentUsername = jwtTokenUtil.getUsernameFromToken(token.replace("Bearer ", ""));
-            System.out.println("Current user: " + currentUsername);
+            String currentUsername = principal.getUsername();
             if (currentUsername.equals(username)) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("You cannot unfollow yourself.");
             }
-            User currentUser = userRepository.findByUsername(currentUsername)
+            User currentUser = userRepository.findById(principal.getId())
                     .orElseThrow(() -> new RuntimeException("Current user not found: " + currentUsername));
             User targetUser = userRepository.findByUsername(username)
                     .orElseThrow(() -> new RuntimeException("Target user not found: " + username));
-            System.out.println("Current user found: " + currentUser.getUsername() + ", ID: " + currentUser.getId());
-            System.out.println("Target user found: " + targetUser.getUsername() + ", ID: " + targetUser.getId());
 
             if (currentUser.isFollowing(targetUser)) {
                 currentUser.unfollow(targetUser);
                 userRepository.save(currentUser);
                 userRepository.save(targetUser);
-                System.out.println("Successfully unfollowed " + username);
-            } else {
-                System.out.println("Not following " + username);
+                timelineService.evict(currentUser.getId());
+                timelineService.onFollowersChanged(targetUser.getId());
+                eventLog.event("users", "unfollowed", "user", currentUser.getId(), "target", targetUser.getId());
             }
             return ResponseEntity.ok().build();
         } catch (Exception e) {
-            System.out.println("Error in unfollowUser: " + e.getMessage());
-            e.printStackTrace(); // Log full stack trace for debugging
+            eventLog.event("users-error", "unfollow_failed", "user", principal.getId(), "target", username,
+                    "error", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error unfollowing user: " + e.getMessage());
         }
     }
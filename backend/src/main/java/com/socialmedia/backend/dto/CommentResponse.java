@@ -3,6 +3,8 @@ package com.socialmedia.backend.dto;
 import lombok.Data;
 import java.time.LocalDateTime;
 
+import com.socialmedia.backend.model.Comment;
+
 @Data
 public class CommentResponse {
     private Long id;
@@ -17,6 +19,26 @@ public class CommentResponse {
         private String username;
         private String fullName;
         private String profileImage;
+        private String profileThumbnail;
         private Boolean verified;
     }
+
+    public static CommentResponse fromComment(Comment comment) {
+        CommentResponse dto = new CommentResponse();
+        dto.setId(comment.getId());
+        dto.setContent(comment.getContent());
+        dto.setImageUrl(comment.getImageUrl());
+        dto.setCreatedAt(comment.getCreatedAt());
+
+        UserSummary userSummary = new UserSummary();
+        userSummary.setId(comment.getUser().getId());
+        userSummary.setUsername(comment.getUser().getUsername());
+        userSummary.setFullName(comment.getUser().getFullName());
+        userSummary.setProfileImage(comment.getUser().getProfileImage());
+        userSummary.setProfileThumbnail(comment.getUser().getProfileThumbnail());
+        userSummary.setVerified(comment.getUser().getVerified());
+        dto.setUser(userSummary);
+
+        return dto;
+    }
 }
\ No newline at end of file
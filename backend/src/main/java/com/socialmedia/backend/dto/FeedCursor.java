@@ -0,0 +1,41 @@
+package com.socialmedia.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in a (createdAt DESC, id DESC) ordered list of posts or comments.
+ * Clients only ever see the encoded form and hand it back unchanged.
+ */
+@Data
+@AllArgsConstructor
+public class FeedCursor {
+    private LocalDateTime createdAt;
+    private Long id;
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new FeedCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    // Thrown for cursors a client tampered with or kept across a format change; maps to 400
+    public static class InvalidCursorException extends RuntimeException {
+        public InvalidCursorException() {
+            super("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.socialmedia.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPageResponse {
+    private List<PostResponse> posts;
+    private String nextCursor; // null when there are no more posts
+}
@@ -2,6 +2,7 @@ package com.socialmedia.backend.dto;
 
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import com.socialmedia.backend.model.Post;
 
@@ -10,6 +11,8 @@ public class PostResponse {
     private Long id;
     private String content;
     private String imageUrl;
+    private String feedImageUrl; // comma-separated, index-aligned with imageUrl
+    private String thumbnailUrl;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private UserSummary user;
@@ -22,17 +25,53 @@ public class PostResponse {
     private UserSummary originalUser;
     private String originalContent;
     private String originalImageUrl;
+    private String originalFeedImageUrl;
     private Long originalPostId;
 
+    private List<CommentResponse> recentComments; // newest first
+
     @Data
     public static class UserSummary {
         private Long id;
         private String username;
         private String fullName;
         private String profileImage;
+        private String profileThumbnail;
         private Boolean verified;
     }
 
+    // Shallow copy; cached instances are shared, so per-viewer flags are set on a copy
+    public PostResponse withViewerFlags(boolean liked, boolean saved) {
+        PostResponse copy = copy();
+        copy.setIsLiked(liked);
+        copy.setSaved(saved);
+        return copy;
+    }
+
+    public PostResponse copy() {
+        PostResponse copy = new PostResponse();
+        copy.setId(id);
+        copy.setContent(content);
+        copy.setImageUrl(imageUrl);
+        copy.setFeedImageUrl(feedImageUrl);
+        copy.setThumbnailUrl(thumbnailUrl);
+        copy.setCreatedAt(createdAt);
+        copy.setUpdatedAt(updatedAt);
+        copy.setUser(user);
+        copy.setComments(comments);
+        copy.setLikes(likes);
+        copy.setIsLiked(isLiked);
+        copy.setShareCount(shareCount);
+        copy.setSaved(isSaved);
+        copy.setOriginalUser(originalUser);
+        copy.setOriginalContent(originalContent);
+        copy.setOriginalImageUrl(originalImageUrl);
+        copy.setOriginalFeedImageUrl(originalFeedImageUrl);
+        copy.setOriginalPostId(originalPostId);
+        copy.setRecentComments(recentComments);
+        return copy;
+    }
+
     public static PostResponse fromPost(Post post, Long currentUserId) {
         PostResponse response = new PostResponse();
         response.setId(post.getId());
@@ -56,11 +95,8 @@ public class PostResponse {
         response.setUser(userSummary);
 
         // --- THIS IS THE IMPORTANT PART ---
-        // Always walk up to the root original post
-        Post root = post.getOriginalPost();
-        while (root != null && root.getOriginalPost() != null) {
-            root = root.getOriginalPost();
-        }
+        // Shares carry a direct pointer to the root original post
+        Post root = post.getShareRoot();
         if (root != null) {
             response.setOriginalPostId(root.getId());
             UserSummary originalUserSummary = new UserSummary();
@@ -11,4 +11,5 @@ public class ProfileUpdateRequest {
     private String location;
     private String backgroundImage;
     private String profileImage;
+    private String profileThumbnail;
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.socialmedia.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class UploadInitRequest {
+    private String fileName;
+    private Long size;
+    private String sha256; // hex; may instead be sent with the complete call
+}
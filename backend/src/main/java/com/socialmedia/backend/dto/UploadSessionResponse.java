@@ -0,0 +1,20 @@
+package com.socialmedia.backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class UploadSessionResponse {
+    private String uploadId;
+    private String status; // UPLOADING, COMPLETING or COMPLETED
+    private String fileName;
+    private long size;
+    private int chunkSize;
+    private int chunkCount;
+    private List<Integer> missingChunks;
+    // Set once completed
+    private String url;
+    private String feedUrl;
+    private String thumbnailUrl;
+}
@@ -0,0 +1,159 @@
+package com.socialmedia.backend.logging;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampled, asynchronous key=value event logging for hot paths. Each category
+ * keeps only a configured fraction of its events (logging.events.sample.&lt;category&gt;,
+ * 0 to 1); kept events are formatted on the calling thread and offered to a
+ * bounded ring buffer that a single writer thread drains into the "events"
+ * logger. Request threads never wait on the console: when the buffer is full
+ * the event is dropped and counted.
+ *
+ * Values under keys that name credentials, and anything shaped like a JWT or
+ * bearer header, are written as [redacted], so raw tokens never reach a log.
+ */
+@Component
+public class EventLog {
+    private static final Logger log = LoggerFactory.getLogger("events");
+    private static final String REDACTED = "[redacted]";
+    private static final int DRAIN_BATCH = 256;
+
+    private final Environment environment;
+    private final double defaultRate;
+    private final BlockingQueue<String> buffer;
+    private final Map<String, Double> rates = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    public EventLog(Environment environment,
+            @Value("${logging.events.buffer-size:8192}") int bufferSize,
+            @Value("${logging.events.default-sample-rate:0.01}") double defaultRate) {
+        this.environment = environment;
+        this.defaultRate = defaultRate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::drain, "event-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Records event name in category with alternating key/value pairs, e.g.
+     * event("auth", "authenticated", "user", username, "uri", uri).
+     */
+    public void event(String category, String name, Object... keyValues) {
+        double rate = rateFor(category);
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate) || !log.isInfoEnabled()) {
+            return;
+        }
+        if (!buffer.offer(format(category, name, rate, keyValues))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    private double rateFor(String category) {
+        return rates.computeIfAbsent(category, c -> environment.getProperty(
+                "logging.events.sample." + c, Double.class, defaultRate));
+    }
+
+    static String format(String category, String name, double rate, Object[] keyValues) {
+        StringBuilder line = new StringBuilder(128);
+        line.append("t=").append(System.currentTimeMillis())
+                .append(" cat=").append(category)
+                .append(" event=").append(name);
+        for (int i = 0; i + 1 < keyValues.length; i += 2) {
+            String key = String.valueOf(keyValues[i]);
+            Object value = keyValues[i + 1];
+            line.append(' ').append(key).append('=');
+            appendValue(line, isSecretKey(key) ? REDACTED : redactTokens(value));
+        }
+        if (rate < 1) {
+            line.append(" sample=").append(rate); // scale counts by 1/sample when aggregating
+        }
+        return line.toString();
+    }
+
+    private static void appendValue(StringBuilder line, String value) {
+        // Line breaks are quoted (and flattened) too, so a value can never forge a log line
+        boolean quote = value.isEmpty() || value.indexOf(' ') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('=') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                line.append('\\');
+            }
+            line.append(c == '\n' || c == '\r' ? ' ' : c);
+        }
+        line.append('"');
+    }
+
+    private static boolean isSecretKey(String key) {
+        String k = key.toLowerCase(Locale.ROOT);
+        return k.contains("token") || k.contains("authorization") || k.contains("password") || k.contains("secret");
+    }
+
+    // JWTs start with a base64url-encoded '{"' header ("eyJ") and have two dots;
+    // the auth scheme is case-insensitive and may sit inside e.g. a header dump
+    private static String redactTokens(Object value) {
+        String s = String.valueOf(value);
+        int jwt = s.indexOf("eyJ");
+        if (s.toLowerCase(Locale.ROOT).contains("bearer ") || (jwt >= 0 && s.indexOf('.', jwt) > 0
+                && s.indexOf('.', s.indexOf('.', jwt) + 1) > 0)) {
+            return REDACTED;
+        }
+        return s;
+    }
+
+    private void drain() {
+        List<String> batch = new ArrayList<>(DRAIN_BATCH);
+        long reportedDrops = 0;
+        try {
+            while (true) {
+                batch.add(buffer.take());
+                buffer.drainTo(batch, DRAIN_BATCH - 1);
+                for (String line : batch) {
+                    log.info(line);
+                }
+                batch.clear();
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    log.warn("t={} cat=events event=dropped count={}", System.currentTimeMillis(), drops - reportedDrops);
+                    reportedDrops = drops;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: write out whatever is still buffered
+            buffer.drainTo(batch);
+            batch.forEach(log::info);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        writer.interrupt();
+    }
+}
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "likes")
+@Table(name = "likes", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_likes_user_post", columnNames = { "user_id", "post_id" })
+})
 public class Like {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
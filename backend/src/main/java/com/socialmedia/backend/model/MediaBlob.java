@@ -0,0 +1,39 @@
+package com.socialmedia.backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * One stored upload, keyed by the SHA-256 of its bytes. Identical uploads share
+ * the row and its files; refCount tracks how many posts, comments and profiles
+ * point at it, and the files are removed when it drops to zero.
+ */
+@Data
+@Entity
+@Table(name = "media_blobs")
+public class MediaBlob {
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    // Paths relative to uploads/; all three are the same file for non-image uploads
+    @Column(name = "thumbnail_path")
+    private String thumbnail;
+
+    @Column(name = "feed_path")
+    private String feed;
+
+    @Column(name = "full_path")
+    private String full;
+
+    @Column(name = "size_bytes")
+    private long sizeBytes;
+
+    // Maintained only by atomic UPDATEs in MediaBlobRepository
+    @Column(name = "ref_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -10,7 +10,10 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 
 @Data
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_posts_deleted_at", columnList = "deleted_at")
+})
 public class Post {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,7 +27,14 @@ public class Post {
     @Column(columnDefinition = "TEXT")
     private String content;
 
-    private String imageUrl;
+    private String imageUrl; // comma-separated; full-size derivatives for processed uploads
+
+    // Comma-separated derivative names, index-aligned with imageUrl
+    @Column(name = "feed_image_url", columnDefinition = "TEXT")
+    private String feedImageUrl;
+
+    @Column(name = "thumbnail_url", columnDefinition = "TEXT")
+    private String thumbnailUrl;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -32,9 +42,20 @@ public class Post {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
-    @Column(name = "share_count", nullable = false, columnDefinition = "int default 0")
+    // Tombstone: set when the author deletes the post; PostPurger removes the row later
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
+    // Counters are maintained only by atomic UPDATEs, never by entity saves
+    @Column(name = "share_count", nullable = false, updatable = false, columnDefinition = "int default 0")
     private int shareCount = 0;
 
+    @Column(name = "like_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private int likeCount = 0;
+
+    @Column(name = "comment_count", nullable = false, updatable = false, columnDefinition = "int default 0")
+    private int commentCount = 0;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -56,7 +77,19 @@ public class Post {
         return comments != null ? comments : new ArrayList<>();
     }
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "original_post_id")
     private Post originalPost;
+
+    // Set once at share time so rendering never has to walk the originalPost chain
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "root_post_id")
+    private Post rootPost;
+
+    // Root of the share chain, or null for an original post. Shares created before
+    // root_post_id existed only carry originalPost, which sharePost always pointed at the root,
+    // until RootPostBackfill copies it over at startup.
+    public Post getShareRoot() {
+        return rootPost != null ? rootPost : originalPost;
+    }
 }
\ No newline at end of file
@@ -2,17 +2,33 @@ package com.socialmedia.backend.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import java.time.LocalDateTime;
 
 @Data
 @Entity
+@Table(name = "saved_post", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_saved_post_user_post", columnNames = { "user_id", "post_id" })
+}, indexes = @Index(name = "idx_saved_post_user_created_at_id", columnList = "user_id, created_at, id"))
 public class SavedPost {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id")
     private Post post;
-}
\ No newline at end of file
+
+    // Rows saved before this column existed take the time of the schema update
+    @Column(name = "created_at", nullable = false, updatable = false,
+            columnDefinition = "datetime(6) default current_timestamp(6)")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -10,6 +10,7 @@ import java.util.List;
 import java.util.Set;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import org.hibernate.annotations.SQLRestriction;
 
 @Data
 @Entity
@@ -40,6 +41,9 @@ public class User {
 
     private String profileImage;
 
+    @Column(name = "profile_thumbnail")
+    private String profileThumbnail; // avatar-sized derivative of profileImage
+
     private String backgroundImage;
 
     private LocalDateTime birthDate;
@@ -68,6 +72,7 @@ public class User {
 
     @JsonManagedReference
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
+    @SQLRestriction("deleted_at IS NULL")
     private List<Post> posts;
 
     @PrePersist
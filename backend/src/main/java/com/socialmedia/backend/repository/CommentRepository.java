@@ -1,11 +1,35 @@
 package com.socialmedia.backend.repository;
 
 import com.socialmedia.backend.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPostIdOrderByCreatedAtDesc(Long postId);
 
     int countByPostId(Long postId);
-}
\ No newline at end of file
+
+    // Keyset pages over idx_comments_post_created_at_id, newest first
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.post.id = :postId "
+            + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageByPostId(Long postId, Pageable pageable);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.post.id = :postId "
+            + "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) "
+            + "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageByPostIdBefore(Long postId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // Ids of the newest perPost comments of each post
+    @Query(value = "SELECT id FROM (SELECT c.id, ROW_NUMBER() OVER "
+            + "(PARTITION BY c.post_id ORDER BY c.created_at DESC, c.id DESC) AS rn "
+            + "FROM comments c WHERE c.post_id IN (:postIds)) ranked WHERE rn <= :perPost", nativeQuery = true)
+    List<Long> findLatestIdsPerPost(Collection<Long> postIds, int perPost);
+
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user WHERE c.id IN :ids ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findAllByIdWithUser(Collection<Long> ids);
+}
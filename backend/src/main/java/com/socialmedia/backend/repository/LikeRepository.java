@@ -2,6 +2,10 @@ package com.socialmedia.backend.repository;
 
 import com.socialmedia.backend.model.Like;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface LikeRepository extends JpaRepository<Like, Long> {
     boolean existsByUserIdAndPostId(Long userId, Long postId);
@@ -9,4 +13,11 @@ public interface LikeRepository extends JpaRepository<Like, Long> {
     void deleteByUserIdAndPostId(Long userId, Long postId);
 
     int countByPostId(Long postId);
-}
\ No newline at end of file
+
+    @Query("SELECT l.post.id FROM Like l WHERE l.user.id = :userId AND l.post.id IN :postIds")
+    List<Long> findLikedPostIds(Long userId, Collection<Long> postIds);
+
+    // Rows of [postId, userId] for every like on the given posts
+    @Query("SELECT l.post.id, l.user.id FROM Like l WHERE l.post.id IN :postIds")
+    List<Object[]> findLikersByPostIds(Collection<Long> postIds);
+}
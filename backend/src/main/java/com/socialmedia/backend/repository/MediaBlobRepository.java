@@ -0,0 +1,33 @@
+package com.socialmedia.backend.repository;
+
+import com.socialmedia.backend.model.MediaBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface MediaBlobRepository extends JpaRepository<MediaBlob, String> {
+    // Records one more reference, creating the row for content stored for the first time
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO media_blobs (hash, thumbnail_path, feed_path, full_path, size_bytes, ref_count, created_at) "
+            + "VALUES (:hash, :thumbnail, :feed, :full, :sizeBytes, 1, NOW()) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    void addReference(String hash, String thumbnail, String feed, String full, long sizeBytes);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE media_blobs SET ref_count = ref_count + 1 WHERE hash = :hash", nativeQuery = true)
+    int incrementRefCount(String hash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE media_blobs SET ref_count = ref_count - 1 WHERE hash = :hash AND ref_count > 0",
+            nativeQuery = true)
+    int decrementRefCount(String hash);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM media_blobs WHERE hash = :hash AND ref_count = 0", nativeQuery = true)
+    int deleteIfUnreferenced(String hash);
+}
@@ -8,6 +8,9 @@ import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+    // Notifications about deleted posts are hidden until PostPurger removes them
+    @Query("SELECT n FROM Notification n LEFT JOIN n.post p WHERE n.user.id = :userId "
+            + "AND (p IS NULL OR p.deletedAt IS NULL) ORDER BY n.createdAt DESC")
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
     @Modifying
@@ -1,18 +1,106 @@
 package com.socialmedia.backend.repository;
 
 import com.socialmedia.backend.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
+    // Author, share root and root author are loaded in the same query as the post
+    String FETCH_WITH_ROOT = "SELECT p FROM Post p JOIN FETCH p.user " +
+            "LEFT JOIN FETCH p.rootPost r LEFT JOIN FETCH r.user ";
+
+    // Every read path excludes tombstoned posts (deletedAt set) that are waiting for PostPurger
+    Optional<Post> findByIdAndDeletedAtIsNull(Long id);
+
+    boolean existsByIdAndDeletedAtIsNull(Long id);
+
+    @Query(FETCH_WITH_ROOT + "WHERE p.user.id = :userId AND p.deletedAt IS NULL ORDER BY p.createdAt DESC")
     List<Post> findByUserIdOrderByCreatedAtDesc(Long userId);
 
-    List<Post> findAllByOrderByCreatedAtDesc();
+    @Query(FETCH_WITH_ROOT + "WHERE p.id IN :ids AND p.deletedAt IS NULL")
+    List<Post> findAllByIdWithRoot(Collection<Long> ids);
+
+    // Rows of [id, createdAt] for a user's own and followed authors' recent posts,
+    // used only to rebuild a home timeline that is not in memory
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE (p.user.id = :userId OR p.user.id IN " +
+           "(SELECT f.id FROM User u JOIN u.following f WHERE u.id = :userId)) AND p.deletedAt IS NULL " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findTimelineEntries(Long userId, Pageable pageable);
+
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.user.id = :authorId AND p.deletedAt IS NULL ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findRecentEntriesByAuthor(Long authorId, Pageable pageable);
+
+    // Rows of [id, createdAt, likeCount, commentCount, shareCount] for recent original (non-share) posts
+    @Query("SELECT p.id, p.createdAt, p.likeCount, p.commentCount, p.shareCount FROM Post p " +
+           "WHERE p.originalPost IS NULL AND p.rootPost IS NULL AND p.deletedAt IS NULL ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findRankingCandidates(Pageable pageable);
+
+    // Keyset pagination over idx_posts_created_at_id; Pageable only carries the limit.
+    // Rows of [id, createdAt] are read in index order, and posts are then resolved
+    // through PostCache so only cache misses are fully loaded.
+    @Query("SELECT p.id, p.createdAt FROM Post p WHERE p.deletedAt IS NULL ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findFeedEntries(Pageable pageable);
+
+    @Query("SELECT p.id, p.createdAt FROM Post p " +
+           "WHERE (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) AND p.deletedAt IS NULL " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Object[]> findFeedEntriesBefore(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // Returns 0 when the post is missing or already tombstoned
+    @Modifying
+    @Query("UPDATE Post p SET p.deletedAt = :deletedAt WHERE p.id = :postId AND p.deletedAt IS NULL")
+    int markDeleted(Long postId, LocalDateTime deletedAt);
+
+    @Query("SELECT p.id FROM Post p WHERE p.deletedAt IS NOT NULL ORDER BY p.deletedAt, p.id")
+    List<Long> findTombstonedIds(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + 1 WHERE p.id = :postId")
+    void incrementLikeCount(Long postId);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount - 1 WHERE p.id = :postId AND p.likeCount > 0")
+    void decrementLikeCount(Long postId);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + 1 WHERE p.id = :postId")
+    void incrementCommentCount(Long postId);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount - 1 WHERE p.id = :postId AND p.commentCount > 0")
+    void decrementCommentCount(Long postId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE posts SET share_count = GREATEST(share_count + :delta, 0) WHERE id = :postId",
+           nativeQuery = true)
+    void adjustShareCount(Long postId, long delta);
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Post p")
+    Long findMaxId();
+
+    // Recomputes both counters from the child tables for one id range
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE posts p SET " +
+           "p.like_count = (SELECT COUNT(*) FROM likes l WHERE l.post_id = p.id), " +
+           "p.comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id) " +
+           "WHERE p.id BETWEEN :fromId AND :toId", nativeQuery = true)
+    int reconcileCounters(Long fromId, Long toId);
 
+    // Shares created before root_post_id existed only carry original_post_id, which always pointed at the root
+    @Transactional
     @Modifying
-    @Query("UPDATE Post p SET p.originalPost = NULL WHERE p.originalPost.id = :postId")
-    void updateOriginalPostIdToNull(Long postId);
-}
\ No newline at end of file
+    @Query(value = "UPDATE posts SET root_post_id = original_post_id " +
+           "WHERE id BETWEEN :fromId AND :toId AND root_post_id IS NULL AND original_post_id IS NOT NULL",
+           nativeQuery = true)
+    int backfillRootPosts(Long fromId, Long toId);
+}
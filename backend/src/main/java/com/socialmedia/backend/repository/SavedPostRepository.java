@@ -1,7 +1,12 @@
 package com.socialmedia.backend.repository;
 
 import com.socialmedia.backend.model.SavedPost;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface SavedPostRepository extends JpaRepository<SavedPost, Long> {
@@ -10,4 +15,19 @@ public interface SavedPostRepository extends JpaRepository<SavedPost, Long> {
     void deleteByUserIdAndPostId(Long userId, Long postId);
 
     List<SavedPost> findByUserId(Long userId);
-}
\ No newline at end of file
+
+    @Query("SELECT sp.post.id FROM SavedPost sp WHERE sp.user.id = :userId AND sp.post.id IN :postIds")
+    List<Long> findSavedPostIds(Long userId, Collection<Long> postIds);
+
+    String FETCH_SAVED = "SELECT sp FROM SavedPost sp JOIN FETCH sp.post p JOIN FETCH p.user "
+            + "LEFT JOIN FETCH p.rootPost r LEFT JOIN FETCH r.user ";
+
+    // Keyset pages over idx_saved_post_user_created_at_id, most recently saved first
+    @Query(FETCH_SAVED + "WHERE sp.user.id = :userId AND p.deletedAt IS NULL ORDER BY sp.createdAt DESC, sp.id DESC")
+    List<SavedPost> findPageByUserId(Long userId, Pageable pageable);
+
+    @Query(FETCH_SAVED + "WHERE sp.user.id = :userId AND p.deletedAt IS NULL "
+            + "AND (sp.createdAt < :createdAt OR (sp.createdAt = :createdAt AND sp.id < :id)) "
+            + "ORDER BY sp.createdAt DESC, sp.id DESC")
+    List<SavedPost> findPageByUserIdBefore(Long userId, LocalDateTime createdAt, Long id, Pageable pageable);
+}
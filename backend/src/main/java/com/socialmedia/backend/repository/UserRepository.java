@@ -20,4 +20,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<User> searchUsers(String query);
+
+    @Query(value = "SELECT follower_id FROM user_following WHERE following_id = :userId", nativeQuery = true)
+    List<Long> findFollowerIds(Long userId);
+
+    @Query(value = "SELECT COUNT(*) FROM user_following WHERE following_id = :userId", nativeQuery = true)
+    long countFollowers(Long userId);
+
+    @Query(value = "SELECT uf.following_id FROM user_following uf WHERE uf.follower_id = :userId " +
+           "AND (SELECT COUNT(*) FROM user_following c WHERE c.following_id = uf.following_id) > :threshold",
+           nativeQuery = true)
+    List<Long> findFollowedIdsWithFollowersAbove(Long userId, long threshold);
 }
\ No newline at end of file
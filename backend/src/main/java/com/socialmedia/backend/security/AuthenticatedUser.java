@@ -0,0 +1,67 @@
+package com.socialmedia.backend.security;
+
+import com.socialmedia.backend.model.User;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The signed-in user as resolved once per request by JwtAuthenticationFilter:
+ * the id plus the profile summary most responses need. Controllers receive it
+ * through @CurrentUser and pass it to services, which load the full User
+ * entity only when they really need its relationships.
+ *
+ * Deliberately not a CredentialsContainer: instances are cached and shared,
+ * and erasing the password hash after one login would break the next.
+ */
+@Getter
+public class AuthenticatedUser implements UserDetails {
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String password;
+    private final String fullName;
+    private final String profileImage;
+    private final String profileThumbnail;
+
+    public AuthenticatedUser(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.email = user.getEmail();
+        this.password = user.getPassword();
+        this.fullName = user.getFullName();
+        this.profileImage = user.getProfileImage();
+        this.profileThumbnail = user.getProfileThumbnail();
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
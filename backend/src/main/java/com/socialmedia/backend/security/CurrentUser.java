@@ -0,0 +1,17 @@
+package com.socialmedia.backend.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the request's AuthenticatedUser into a controller parameter. With
+ * required = false the parameter is null for anonymous requests; otherwise
+ * they are answered with 401.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+    boolean required() default true;
+}
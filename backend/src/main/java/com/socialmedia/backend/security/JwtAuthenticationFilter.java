@@ -1,5 +1,6 @@
 package com.socialmedia.backend.security;
 
+import com.socialmedia.backend.logging.EventLog;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,6 +22,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenUtil jwtTokenUtil;
     private final UserDetailsService userDetailsService;
+    private final EventLog eventLog;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -29,47 +31,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
 
-        System.out.println("Jwt Filter: " + request.getMethod() + " " + request.getRequestURI());
-        System.out.println("Auth Header: " + authHeader);
-
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("No Bearer token found or header is null. Skipping JWT filter chain.");
             filterChain.doFilter(request, response);
             return;
         }
 
+        // Events carry the user and route only; the header and token are never logged
         try {
             final String jwt = authHeader.substring(7);
-            System.out.println("Extracted JWT: " + jwt);
-
             final String username = jwtTokenUtil.getUsernameFromToken(jwt);
-            System.out.println("Username from JWT: " + username);
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                 UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                System.out.println("Loaded UserDetails for: " + userDetails.getUsername() + " with roles: "
-                        + userDetails.getAuthorities());
 
                 if (jwtTokenUtil.validateToken(jwt, userDetails)) {
-                    System.out.println("JWT token is valid.");
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
                             userDetails.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("SecurityContextHolder set for user: " + username);
+                    eventLog.event("auth", "authenticated", "user", username,
+                            "method", request.getMethod(), "uri", request.getRequestURI());
                 } else {
-                    System.out.println("JWT token validation failed for user: " + username);
+                    eventLog.event("auth-failure", "token_rejected", "user", username,
+                            "uri", request.getRequestURI());
                 }
-            } else if (username == null) {
-                System.out.println("Username could not be extracted from JWT.");
-            } else {
-                System.out.println("SecurityContextHolder already has authentication for user: " + username);
             }
         } catch (Exception e) {
-            logger.error("Cannot set user authentication: " + e.getMessage(), e); // Log full stack trace
-            System.out.println("Exception during JWT authentication: " + e.getMessage());
+            // Expired and forged tokens are routine; a sampled line without a stack trace is enough
+            eventLog.event("auth-failure", "token_invalid", "uri", request.getRequestURI(),
+                    "error", e.getClass().getSimpleName());
         }
 
         filterChain.doFilter(request, response);
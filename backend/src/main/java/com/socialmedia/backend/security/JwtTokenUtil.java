@@ -1,17 +1,33 @@
 package com.socialmedia.backend.security;
 
+import com.socialmedia.backend.cache.BoundedCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Issues and verifies JWTs. The signing key and parser are built once. Tokens
+ * that passed verification are remembered by their SHA-256 digest until they
+ * expire, so the HMAC check and JSON parse run once per token rather than
+ * several times per request; raw tokens are never kept in memory.
+ */
 @Component
 public class JwtTokenUtil {
 
@@ -21,8 +37,21 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.verified-cache.max-entries:50000}")
+    private int verifiedCacheMaxEntries;
+
+    @Value("${jwt.verified-cache.ttl-seconds:900}")
+    private long verifiedCacheTtlSeconds;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private BoundedCache<String, VerifiedToken> verified;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build(); // immutable and thread-safe
+        verified = new BoundedCache<>(verifiedCacheMaxEntries, Duration.ofSeconds(verifiedCacheTtlSeconds));
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -36,35 +65,57 @@ public class JwtTokenUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Checks signature and expiry in a single parse and returns the verified claims.
+     * Throws a JwtException for invalid or expired tokens. Always parses; use verify
+     * for the cached path.
+     */
+    public Claims parseVerifiedClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    // Verified subject and expiry of a token, served from the cache when it was seen before
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verified.get(digest);
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = parseVerifiedClaims(token);
+        Date expiresAt = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(claims.getSubject(),
+                expiresAt != null ? expiresAt.getTime() : Long.MAX_VALUE);
+        verified.put(digest, result, result.getExpiresAt());
+        return result;
+    }
+
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        VerifiedToken result = verify(token);
+        return result.getUsername().equals(userDetails.getUsername())
+                && result.getExpiresAt() > System.currentTimeMillis();
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).getUsername();
     }
 
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
-    private Date getExpirationDateFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final String username;
+        private final long expiresAt; // epoch millis
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package com.socialmedia.backend.security;
+
+import com.socialmedia.backend.cache.BoundedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-IP and per-account token buckets in front of login and signup, checked
+ * before any password hashing is queued. A credential-stuffing wave runs out
+ * of tokens for its source addresses and for each targeted account, and gets
+ * 429s that cost nothing. Buckets live in bounded caches whose TTL is the
+ * time a bucket needs to refill completely, and are stored again on every use,
+ * so an entry only expires once it has been idle long enough to be full anyway
+ * and a replacement bucket grants nothing the old one would not have.
+ */
+@Component
+public class LoginThrottle {
+    private final BoundedCache<String, TokenBucket> ipBuckets;
+    private final BoundedCache<String, TokenBucket> accountBuckets;
+    private final int ipCapacity;
+    private final double ipPerMinute;
+    private final int accountCapacity;
+    private final double accountPerMinute;
+    private final AtomicLong throttled = new AtomicLong();
+
+    public LoginThrottle(@Value("${auth.throttle.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.throttle.ip.per-minute:20}") double ipPerMinute,
+            @Value("${auth.throttle.account.capacity:5}") int accountCapacity,
+            @Value("${auth.throttle.account.per-minute:5}") double accountPerMinute,
+            @Value("${auth.throttle.max-tracked:100000}") int maxTracked) {
+        this.ipCapacity = ipCapacity;
+        this.ipPerMinute = ipPerMinute;
+        this.accountCapacity = accountCapacity;
+        this.accountPerMinute = accountPerMinute;
+        this.ipBuckets = new BoundedCache<>(maxTracked, refillTime(ipCapacity, ipPerMinute));
+        this.accountBuckets = new BoundedCache<>(maxTracked, refillTime(accountCapacity, accountPerMinute));
+    }
+
+    // Throws 429 when either the client address or the account is out of tokens
+    public void check(String clientIp, String account) {
+        boolean allowed = acquire(ipBuckets, clientIp, ipCapacity, ipPerMinute);
+        if (allowed && account != null && !account.isEmpty()) {
+            allowed = acquire(accountBuckets, account.toLowerCase(Locale.ROOT), accountCapacity, accountPerMinute);
+        }
+        if (!allowed) {
+            throttled.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many attempts, try again later");
+        }
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    private static boolean acquire(BoundedCache<String, TokenBucket> buckets, String key, int capacity,
+            double perMinute) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            TokenBucket created = new TokenBucket(capacity, perMinute);
+            bucket = buckets.putIfAbsent(key, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        boolean allowed = bucket.tryAcquire();
+        // Restarts the TTL: the entry must outlive the refill time counted from its last use, not its creation
+        buckets.put(key, bucket);
+        return allowed;
+    }
+
+    private static Duration refillTime(int capacity, double perMinute) {
+        return Duration.ofMillis((long) Math.ceil(capacity / perMinute * 60_000));
+    }
+}
@@ -0,0 +1,78 @@
+package com.socialmedia.backend.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt-bound work (login checks, signup hashing) on the CPU-sized
+ * passwordExecutor instead of Tomcat request threads. The queue is short and
+ * a full pool answers 429 immediately, so an auth burst queues at most a few
+ * tasks and never takes request threads away from reads. Queue wait and run
+ * time are recorded and logged periodically.
+ */
+@Component
+public class PasswordHashingPool {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingPool.class);
+
+    private final Executor passwordExecutor;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong runNanos = new AtomicLong();
+    private final AtomicLong maxRunNanos = new AtomicLong();
+
+    public PasswordHashingPool(@Qualifier("passwordExecutor") Executor passwordExecutor) {
+        this.passwordExecutor = passwordExecutor;
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return task.get();
+                } finally {
+                    long run = System.nanoTime() - startedAt;
+                    waitNanos.addAndGet(startedAt - queuedAt);
+                    runNanos.addAndGet(run);
+                    maxRunNanos.accumulateAndGet(run, Math::max);
+                    completed.incrementAndGet();
+                }
+            }, passwordExecutor);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Authentication is busy, try again");
+        }
+    }
+
+    // Averages cover the interval since the previous report
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${auth.hashing.stats-interval-ms:60000}")
+    public void logStats() {
+        long count = completed.getAndSet(0);
+        long rejectedNow = rejected.getAndSet(0);
+        long waited = waitNanos.getAndSet(0);
+        long ran = runNanos.getAndSet(0);
+        long maxRun = maxRunNanos.getAndSet(0);
+        if (count == 0 && rejectedNow == 0) {
+            return;
+        }
+        log.info("Password hashing: {} done, {} rejected, avg wait {} ms, avg run {} ms, max run {} ms",
+                count, rejectedNow,
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waited / count),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(ran / count),
+                TimeUnit.NANOSECONDS.toMillis(maxRun));
+    }
+}
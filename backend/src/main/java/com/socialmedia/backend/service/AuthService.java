@@ -5,14 +5,19 @@ import com.socialmedia.backend.dto.LoginRequest;
 import com.socialmedia.backend.dto.SignupRequest;
 import com.socialmedia.backend.model.User;
 import com.socialmedia.backend.repository.UserRepository;
+import com.socialmedia.backend.security.AuthenticatedUser;
 import com.socialmedia.backend.security.JwtTokenUtil;
+import com.socialmedia.backend.security.LoginThrottle;
+import com.socialmedia.backend.security.PasswordHashingPool;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -22,8 +27,12 @@ public class AuthService {
     private final JwtTokenUtil jwtTokenUtil;
     private final AuthenticationManager authenticationManager;
     private final CustomUserDetailsService userDetailsService;
+    private final LoginThrottle loginThrottle;
+    private final PasswordHashingPool passwordHashingPool;
 
-    public AuthResponse signup(SignupRequest request) {
+    // The hash runs on the password pool; the request thread is released until it finishes
+    public CompletableFuture<AuthResponse> signup(SignupRequest request, String clientIp) {
+        loginThrottle.check(clientIp, null);
         // Check if user already exists
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -32,45 +41,35 @@ public class AuthService {
             throw new RuntimeException("Email already exists");
         }
 
-        // Create new user
-        User user = new User();
-        user.setUsername(request.getUsername());
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFullName(request.getFullName());
-
-        userRepository.save(user);
-
-        // Generate JWT token
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
-        String token = jwtTokenUtil.generateToken(userDetails);
+        return passwordHashingPool.submit(() -> passwordEncoder.encode(request.getPassword()))
+                .thenApply(hash -> {
+                    // Create new user
+                    User user = new User();
+                    user.setUsername(request.getUsername());
+                    user.setEmail(request.getEmail());
+                    user.setPassword(hash);
+                    user.setFullName(request.getFullName());
 
-        // Fetch the saved user to get the email and other details (like profileImage if
-        // set by default)
-        User savedUser = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found after signup"));
-
-        // Create response
-        AuthResponse response = new AuthResponse();
-        response.setToken(token);
-        response.setUsername(savedUser.getUsername());
-        response.setEmail(savedUser.getEmail());
-        response.setFullName(savedUser.getFullName()); // Populate fullName
-        response.setProfileImage(savedUser.getProfileImage()); // Populate profileImage
-        return response;
+                    User savedUser = userRepository.save(user);
+                    userDetailsService.evict(savedUser);
+                    AuthenticatedUser principal = new AuthenticatedUser(savedUser);
+                    return toResponse(jwtTokenUtil.generateToken(principal), principal);
+                });
     }
 
-    public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsernameOrEmail(), request.getPassword()));
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsernameOrEmail());
-        String token = jwtTokenUtil.generateToken(userDetails);
-
-        // Fetch user from DB to get email, fullName, profileImage
-        User user = userRepository.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // Throttled per address and account first, then checked on the password pool
+    public CompletableFuture<AuthResponse> login(LoginRequest request, String clientIp) {
+        loginThrottle.check(clientIp, request.getUsernameOrEmail());
+        return passwordHashingPool.submit(() -> {
+            Authentication authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getUsernameOrEmail(), request.getPassword()));
+            // The principal already holds email, fullName and profileImage; no second lookup
+            AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+            return toResponse(jwtTokenUtil.generateToken(principal), principal);
+        });
+    }
 
+    private AuthResponse toResponse(String token, AuthenticatedUser user) {
         AuthResponse response = new AuthResponse();
         response.setToken(token);
         response.setUsername(user.getUsername());
@@ -0,0 +1,418 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.dto.UploadSessionResponse;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads for large media: the client opens a session with the file
+ * size and SHA-256, PUTs fixed-size chunks in any order (and in parallel), then
+ * completes the session. Each chunk is written straight to its offset in a
+ * preallocated staging file with positional FileChannel writes, so concurrent
+ * chunks never contend and a dropped connection only costs the chunk in flight;
+ * the status call lists what is still missing.
+ *
+ * Completing verifies the checksum and stores the file through
+ * FileUploadService, which adds one reference. The result is then claimed by id
+ * when a post is created; sessions that are abandoned, finished or not, expire
+ * and give their files and references back. Sessions live only in memory, so
+ * the sweep also deletes staging files no session owns, e.g. after a restart.
+ */
+@Service
+public class ChunkedUploadService {
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private final FileUploadService fileUploadService;
+    private final Path chunkedPath = Paths.get("upload-staging", "chunked");
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final int chunkSize;
+    private final long maxBytes;
+    private final int maxSessionsPerUser;
+    private final long ttlMillis;
+
+    public ChunkedUploadService(FileUploadService fileUploadService,
+            @Value("${uploads.chunked.chunk-size:8388608}") int chunkSize,
+            @Value("${uploads.chunked.max-bytes:1073741824}") long maxBytes,
+            @Value("${uploads.chunked.max-sessions-per-user:4}") int maxSessionsPerUser,
+            @Value("${uploads.chunked.ttl-minutes:60}") long ttlMinutes) {
+        this.fileUploadService = fileUploadService;
+        this.chunkSize = chunkSize;
+        this.maxBytes = maxBytes;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.ttlMillis = Duration.ofMinutes(ttlMinutes).toMillis();
+        try {
+            Files.createDirectories(chunkedPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not create upload directory", e);
+        }
+    }
+
+    public UploadSessionResponse init(AuthenticatedUser currentUser, String fileName, Long size, String sha256) {
+        String owner = currentUser.getUsername();
+        if (size == null || size <= 0 || size > maxBytes) {
+            throw new RuntimeException("Invalid upload size");
+        }
+        if (sha256 != null && !isSha256(sha256)) {
+            throw new RuntimeException("Invalid checksum");
+        }
+        long open = sessions.values().stream().filter(s -> s.owner.equals(owner)).count();
+        if (open >= maxSessionsPerUser) {
+            throw new RuntimeException("Too many open uploads");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path path = chunkedPath.resolve(id + ".part");
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            // Extends the file to its final length up front; chunks then only overwrite in place
+            channel.write(ByteBuffer.wrap(new byte[1]), size - 1);
+        } catch (IOException e) {
+            closeQuietly(channel);
+            deleteQuietly(path);
+            throw new RuntimeException("Could not create upload", e);
+        }
+        int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+        UploadSession session = new UploadSession(id, owner, fileName, size, chunkCount, path, channel,
+                sha256 == null ? null : sha256.toLowerCase());
+        sessions.put(id, session);
+        return toResponse(session);
+    }
+
+    public UploadSessionResponse status(AuthenticatedUser currentUser, String uploadId) {
+        return toResponse(find(currentUser, uploadId));
+    }
+
+    /**
+     * Writes chunk index from body at its offset. The body must hold exactly the chunk's
+     * length (chunkSize, or the remainder for the last chunk); a short or long body is
+     * rejected and the chunk stays missing. Re-sending a chunk simply overwrites it.
+     */
+    public UploadSessionResponse writeChunk(AuthenticatedUser currentUser, String uploadId, int index, InputStream body) {
+        UploadSession session = find(currentUser, uploadId);
+        if (index < 0 || index >= session.chunkCount) {
+            throw new RuntimeException("Invalid chunk index");
+        }
+        long offset = (long) index * chunkSize;
+        long length = Math.min(chunkSize, session.size - offset);
+
+        session.beginWrite();
+        boolean written = false;
+        try {
+            ReadableByteChannel source = Channels.newChannel(body);
+            long transferred = 0;
+            while (transferred < length) {
+                // Positional transfer: leaves the channel position alone, so chunks can land concurrently
+                long n = session.channel.transferFrom(source, offset + transferred, length - transferred);
+                if (n <= 0) {
+                    break;
+                }
+                transferred += n;
+            }
+            if (transferred != length || body.read() != -1) {
+                throw new RuntimeException("Chunk must be exactly " + length + " bytes");
+            }
+            written = true;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write chunk", e);
+        } finally {
+            session.endWrite(index, written);
+        }
+        return toResponse(session);
+    }
+
+    /**
+     * Verifies the assembled file against the checksum given at init (or here) and
+     * stores it. On a mismatch every chunk is marked missing again so the client can
+     * re-send the file within the same session.
+     */
+    public UploadSessionResponse complete(AuthenticatedUser currentUser, String uploadId, String sha256) {
+        UploadSession session = find(currentUser, uploadId);
+        String expected = sha256 != null ? sha256.toLowerCase() : session.sha256;
+        if (expected == null || !isSha256(expected)) {
+            throw new RuntimeException("Checksum required");
+        }
+        session.beginComplete();
+        String actual;
+        try {
+            actual = checksum(session.channel);
+        } catch (IOException e) {
+            session.abortComplete();
+            throw new RuntimeException("Could not complete upload", e);
+        }
+        if (!actual.equals(expected)) {
+            session.resetChunks();
+            throw new RuntimeException("Checksum mismatch");
+        }
+        // From here the staging file is handed to FileUploadService, which consumes it either way
+        closeQuietly(session.channel);
+        try {
+            session.completed(fileUploadService.saveStagedImage(session.path, actual, session.size,
+                    session.fileName));
+        } catch (RuntimeException e) {
+            sessions.remove(uploadId, session);
+            throw e;
+        }
+        return toResponse(session);
+    }
+
+    public void abort(AuthenticatedUser currentUser, String uploadId) {
+        UploadSession session = find(currentUser, uploadId);
+        if (!session.isIdle()) {
+            throw new RuntimeException("Upload is busy");
+        }
+        if (sessions.remove(uploadId, session)) {
+            discard(session);
+        }
+    }
+
+    /**
+     * Hands the stored files of completed uploads over to the caller, in the given order,
+     * together with the reference each one holds. Either all uploads are claimed or none.
+     */
+    public List<ImageDerivativeService.Derivatives> claim(AuthenticatedUser currentUser, List<String> uploadIds) {
+        String owner = currentUser.getUsername();
+        List<UploadSession> claimed = new ArrayList<>(uploadIds.size());
+        try {
+            for (String uploadId : uploadIds) {
+                UploadSession session = sessions.get(uploadId);
+                if (session == null || !session.owner.equals(owner) || session.stored == null
+                        || !sessions.remove(uploadId, session)) {
+                    throw new RuntimeException("Upload not found or not completed: " + uploadId);
+                }
+                claimed.add(session);
+            }
+        } catch (RuntimeException e) {
+            claimed.forEach(session -> sessions.put(session.id, session)); // nobody else can claim them meanwhile
+            throw e;
+        }
+        List<ImageDerivativeService.Derivatives> result = new ArrayList<>(claimed.size());
+        claimed.forEach(session -> result.add(session.stored));
+        return result;
+    }
+
+    // Drops sessions nobody touched within the TTL: partial files are deleted, unclaimed results released
+    @Scheduled(fixedDelayString = "${uploads.chunked.sweep-interval-ms:60000}")
+    public void expire() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        int expired = 0;
+        for (UploadSession session : sessions.values()) {
+            if (session.lastTouched < cutoff && session.isIdle() && sessions.remove(session.id, session)) {
+                discard(session);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} abandoned uploads", expired);
+        }
+        deleteOrphanedParts(cutoff);
+    }
+
+    // Untouched past the TTL and owned by no session; the age check spares files whose session is just being created
+    private void deleteOrphanedParts(long cutoff) {
+        int deleted = 0;
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(chunkedPath, "*.part")) {
+            for (Path part : parts) {
+                String name = part.getFileName().toString();
+                String id = name.substring(0, name.length() - ".part".length());
+                if (!sessions.containsKey(id) && Files.getLastModifiedTime(part).toMillis() < cutoff
+                        && Files.deleteIfExists(part)) {
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not sweep {}", chunkedPath, e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} orphaned upload files", deleted);
+        }
+    }
+
+    private UploadSession find(AuthenticatedUser currentUser, String uploadId) {
+        String owner = currentUser.getUsername();
+        UploadSession session = sessions.get(uploadId);
+        if (session == null || !session.owner.equals(owner)) {
+            throw new RuntimeException("Upload not found");
+        }
+        session.lastTouched = System.currentTimeMillis();
+        return session;
+    }
+
+    private void discard(UploadSession session) {
+        if (session.stored != null) {
+            fileUploadService.release(session.stored.getFull());
+        } else {
+            closeQuietly(session.channel);
+            deleteQuietly(session.path);
+        }
+    }
+
+    // Reads the whole file once through a direct buffer
+    private static String checksum(FileChannel channel) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+            long position = 0;
+            int n;
+            while ((n = channel.read(buffer, position)) > 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                position += n;
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isSha256(String value) {
+        return value.length() == 64 && value.chars().allMatch(c -> Character.digit(c, 16) >= 0);
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        UploadSessionResponse response = new UploadSessionResponse();
+        response.setUploadId(session.id);
+        response.setFileName(session.fileName);
+        response.setSize(session.size);
+        response.setChunkSize(chunkSize);
+        response.setChunkCount(session.chunkCount);
+        synchronized (session) {
+            response.setStatus(session.state.name());
+            response.setMissingChunks(session.missingChunks());
+        }
+        if (session.stored != null) {
+            response.setUrl(session.stored.getFull());
+            response.setFeedUrl(session.stored.getFeed());
+            response.setThumbnailUrl(session.stored.getThumbnail());
+        }
+        return response;
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close upload file", e);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private enum State { UPLOADING, COMPLETING, COMPLETED }
+
+    // Chunk bookkeeping is guarded by the session's monitor; the channel itself is shared
+    private static class UploadSession {
+        private final String id;
+        private final String owner;
+        private final String fileName;
+        private final long size;
+        private final int chunkCount;
+        private final Path path;
+        private final FileChannel channel;
+        private final String sha256;
+        private final BitSet received = new BitSet();
+        private State state = State.UPLOADING;
+        private int writesInFlight;
+        private volatile ImageDerivativeService.Derivatives stored;
+        private volatile long lastTouched = System.currentTimeMillis();
+
+        private UploadSession(String id, String owner, String fileName, long size, int chunkCount, Path path,
+                FileChannel channel, String sha256) {
+            this.id = id;
+            this.owner = owner;
+            this.fileName = fileName;
+            this.size = size;
+            this.chunkCount = chunkCount;
+            this.path = path;
+            this.channel = channel;
+            this.sha256 = sha256;
+        }
+
+        private synchronized void beginWrite() {
+            if (state != State.UPLOADING) {
+                throw new RuntimeException("Upload is already " + state.name().toLowerCase());
+            }
+            writesInFlight++;
+        }
+
+        private synchronized void endWrite(int index, boolean written) {
+            writesInFlight--;
+            if (written) {
+                received.set(index);
+            } else {
+                received.clear(index); // a failed re-send may have overwritten good bytes
+            }
+        }
+
+        private synchronized void beginComplete() {
+            if (state != State.UPLOADING || writesInFlight > 0 || received.cardinality() < chunkCount) {
+                throw new RuntimeException("Upload is not ready to complete");
+            }
+            state = State.COMPLETING;
+        }
+
+        private synchronized void abortComplete() {
+            if (state == State.COMPLETING) {
+                state = State.UPLOADING;
+            }
+        }
+
+        private synchronized void resetChunks() {
+            received.clear();
+            state = State.UPLOADING;
+        }
+
+        private synchronized void completed(ImageDerivativeService.Derivatives result) {
+            stored = result;
+            state = State.COMPLETED;
+        }
+
+        private synchronized boolean isIdle() {
+            return state != State.COMPLETING && writesInFlight == 0;
+        }
+
+        private List<Integer> missingChunks() {
+            List<Integer> missing = new ArrayList<>();
+            for (int i = received.nextClearBit(0); i < chunkCount; i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return missing;
+        }
+    }
+}
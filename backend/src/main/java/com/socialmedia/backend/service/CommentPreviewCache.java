@@ -0,0 +1,102 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.cache.BoundedCache;
+import com.socialmedia.backend.dto.CommentResponse;
+import com.socialmedia.backend.model.Comment;
+import com.socialmedia.backend.repository.CommentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The newest few comments of each post, embedded in feed responses. Posts
+ * missing from the cache are loaded for a whole page at once. Adds and edits
+ * patch cached lists; a delete of a previewed comment drops the entry so the
+ * next read refills it with the next-older comment.
+ */
+@Component
+public class CommentPreviewCache {
+    private final CommentRepository commentRepository;
+    private final BoundedCache<Long, List<CommentResponse>> cache;
+    private final int previewSize;
+
+    public CommentPreviewCache(CommentRepository commentRepository,
+            @Value("${comments.preview.size:3}") int previewSize,
+            @Value("${comments.preview.max-posts:10000}") int maxPosts,
+            @Value("${comments.preview.ttl-seconds:300}") long ttlSeconds) {
+        this.commentRepository = commentRepository;
+        this.previewSize = previewSize;
+        this.cache = new BoundedCache<>(maxPosts, Duration.ofSeconds(ttlSeconds));
+    }
+
+    // Previews for all the given posts, newest first; cached lists are shared and must not be modified
+    public Map<Long, List<CommentResponse>> forPosts(Collection<Long> postIds) {
+        Map<Long, List<CommentResponse>> result = new HashMap<>();
+        if (previewSize <= 0) {
+            postIds.forEach(postId -> result.put(postId, Collections.emptyList()));
+            return result;
+        }
+        List<Long> misses = new ArrayList<>();
+        for (Long postId : postIds) {
+            List<CommentResponse> preview = cache.get(postId);
+            if (preview != null) {
+                result.put(postId, preview);
+            } else {
+                misses.add(postId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            Map<Long, List<CommentResponse>> loaded = new HashMap<>();
+            misses.forEach(postId -> loaded.put(postId, new ArrayList<>()));
+            List<Long> ids = commentRepository.findLatestIdsPerPost(misses, previewSize);
+            if (!ids.isEmpty()) {
+                for (Comment comment : commentRepository.findAllByIdWithUser(ids)) {
+                    loaded.get(comment.getPost().getId()).add(CommentResponse.fromComment(comment));
+                }
+            }
+            loaded.forEach((postId, preview) -> {
+                List<CommentResponse> frozen = Collections.unmodifiableList(preview);
+                cache.put(postId, frozen);
+                result.put(postId, frozen);
+            });
+        }
+        return result;
+    }
+
+    public void onAdded(Long postId, CommentResponse comment) {
+        cache.update(postId, preview -> {
+            List<CommentResponse> updated = new ArrayList<>(previewSize);
+            updated.add(comment);
+            for (int i = 0; i < preview.size() && updated.size() < previewSize; i++) {
+                updated.add(preview.get(i));
+            }
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
+    public void onEdited(Long postId, CommentResponse comment) {
+        cache.update(postId, preview -> {
+            List<CommentResponse> updated = new ArrayList<>(preview);
+            updated.replaceAll(c -> c.getId().equals(comment.getId()) ? comment : c);
+            return Collections.unmodifiableList(updated);
+        });
+    }
+
+    public void onDeleted(Long postId, Long commentId) {
+        List<CommentResponse> preview = cache.get(postId);
+        if (preview != null && preview.stream().anyMatch(c -> c.getId().equals(commentId))) {
+            cache.invalidate(postId);
+        }
+    }
+
+    public void invalidate(Long postId) {
+        cache.invalidate(postId);
+    }
+}
@@ -0,0 +1,59 @@
+package com.socialmedia.backend.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Fixed-size count-min sketch over long keys. Estimates never undercount; they
+ * overcount by at most ~e/width of the total added, with probability 1 - e^-depth.
+ * Sketches of the same shape are linear, so estimates over several buckets are
+ * taken on the summed counters.
+ */
+public class CountMinSketch {
+    private final int depth;
+    private final int width;
+    private final AtomicIntegerArray counters; // depth rows of width counters
+
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = width;
+        this.counters = new AtomicIntegerArray(depth * width);
+    }
+
+    public void add(long key, int count) {
+        for (int row = 0; row < depth; row++) {
+            counters.addAndGet(index(row, key), count);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    // Estimate of the key's total count across all given sketches, which must share this shape
+    public static long estimate(CountMinSketch[] sketches, long key) {
+        CountMinSketch shape = sketches[0];
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < shape.depth; row++) {
+            int index = shape.index(row, key);
+            long sum = 0;
+            for (CountMinSketch sketch : sketches) {
+                sum += sketch.counters.get(index);
+            }
+            min = Math.min(min, sum);
+        }
+        return min;
+    }
+
+    private int index(int row, long key) {
+        return row * width + (int) Math.floorMod(mix(key + row * 0x9E3779B97F4A7C15L), (long) width);
+    }
+
+    // SplitMix64 finalizer; distinct offsets per row give independent-enough hash rows
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,51 +1,105 @@
 package com.socialmedia.backend.service;
 
+import com.socialmedia.backend.cache.BoundedCache;
 import com.socialmedia.backend.model.User;
 import com.socialmedia.backend.repository.UserRepository;
-import com.socialmedia.backend.security.JwtTokenUtil;
+import com.socialmedia.backend.security.AuthenticatedUser;
 //import com.socialmedia.backend.config.JwtService;
-import lombok.RequiredArgsConstructor;
-
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.Locale;
 import java.util.Optional;
 
+/**
+ * Loads users for authentication. Every authenticated request resolves its
+ * principal here, so identity records are cached under both the username and
+ * the email (lower-cased, matching the database's case-insensitive collation).
+ * Anything that changes a user's identity or profile summary must call evict.
+ */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
+    private static final Logger log = LoggerFactory.getLogger(CustomUserDetailsService.class);
 
     private final UserRepository userRepository;
-    private final JwtTokenUtil jwtTokenUtil;
+    private final BoundedCache<String, AuthenticatedUser> cache;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+            @Value("${users.cache.max-entries:20000}") int maxEntries,
+            @Value("${users.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = new BoundedCache<>(maxEntries, Duration.ofSeconds(ttlSeconds));
+    }
 
     @Override
-    public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
+        AuthenticatedUser cached = cache.get(key(usernameOrEmail));
+        if (cached != null) {
+            return cached;
+        }
         User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "User not found with username or email: " + usernameOrEmail));
 
-        System.out.println("Loaded user: " + user.getUsername());
-        // Add default ROLE_USER authority
-        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        AuthenticatedUser loaded = new AuthenticatedUser(user);
+        cache.put(key(user.getUsername()), loaded);
+        cache.put(key(user.getEmail()), loaded);
+        return loaded;
+    }
+
+    // Drops the cached identity after a profile change, signup or account change
+    public void evict(User user) {
+        evict(user.getUsername(), user.getEmail());
+    }
+
+    public void evict(String username, String email) {
+        if (username != null) {
+            cache.invalidate(key(username));
+        }
+        if (email != null) {
+            cache.invalidate(key(email));
+        }
+    }
+
+    private static String key(String usernameOrEmail) {
+        return usernameOrEmail.toLowerCase(Locale.ROOT);
+    }
+
+    public long cacheHits() {
+        return cache.hitCount();
+    }
+
+    public long cacheMisses() {
+        return cache.missCount();
+    }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                authorities);
+    @Scheduled(initialDelay = 300000, fixedDelayString = "${users.cache.stats-interval-ms:300000}")
+    public void logCacheStats() {
+        long hits = cache.hitCount();
+        long misses = cache.missCount();
+        if (hits + misses > 0) {
+            log.info("User cache: {} hits, {} misses ({}% hit rate), {} entries",
+                    hits, misses, hits * 100 / (hits + misses), cache.size());
+        }
     }
 
-    public User getUserFromToken(String token) {
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        return userRepository.findByUsername(username)
+    // The full entity, for callers that need its relationships or profile fields
+    public User getUser(AuthenticatedUser currentUser) {
+        return userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    // An uninitialized proxy carrying only the id; enough to set associations without a query
+    public User getReference(AuthenticatedUser currentUser) {
+        return userRepository.getReferenceById(currentUser.getId());
+    }
+
     public User getUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -60,7 +114,9 @@ public class CustomUserDetailsService implements UserDetailsService {
     }
 
     public User updateUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evict(saved);
+        return saved;
     }
 
     public boolean existsByUsername(String username) {
@@ -0,0 +1,212 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.cache.BoundedCache;
+import com.socialmedia.backend.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Engagement-ranked feed over a window of the most recent original posts.
+ *
+ * Engagement per candidate is kept current from like/comment/share events, so
+ * a request never rescans the tables. With exponential decay the rank key
+ * ln(1 + engagement) + createdAt * ln2 / halfLife orders posts exactly as
+ * engagement * 2^(-age / halfLife) would, at any point in time, so it is
+ * recomputed only when that post's engagement changes. Gravity decay
+ * (engagement / (ageHours + 2)^gravity) depends on "now" and is evaluated at
+ * read time. Either way the candidates are ranked with a window-sized heap.
+ *
+ * Scores move with every like, comment and share, so a ranking read by offset
+ * would shift between page requests and show some posts twice and others never.
+ * A paged reader therefore gets a snapshot of the whole ranking, kept for
+ * ranking.snapshot-ttl-minutes, and reads every later page from it.
+ */
+@Service
+@RequiredArgsConstructor
+public class FeedRankingService {
+    private static final double LN2 = Math.log(2);
+
+    private final PostRepository postRepository;
+    private final Map<Long, Candidate> candidates = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    @Value("${ranking.decay:exponential}")
+    private String decay;
+
+    @Value("${ranking.half-life-hours:12}")
+    private double halfLifeHours;
+
+    @Value("${ranking.gravity:1.8}")
+    private double gravity;
+
+    @Value("${ranking.like-weight:1}")
+    private double likeWeight;
+
+    @Value("${ranking.comment-weight:2}")
+    private double commentWeight;
+
+    @Value("${ranking.share-weight:3}")
+    private double shareWeight;
+
+    @Value("${ranking.candidate-window:2000}")
+    private int window;
+
+    @Value("${ranking.max-snapshots:1000}")
+    private int maxSnapshots;
+
+    @Value("${ranking.snapshot-ttl-minutes:10}")
+    private long snapshotTtlMinutes;
+
+    private BoundedCache<String, long[]> snapshots;
+
+    @PostConstruct
+    void init() {
+        snapshots = new BoundedCache<>(maxSnapshots, Duration.ofMinutes(snapshotTtlMinutes));
+    }
+
+    // Ids of every candidate, best first
+    public long[] ranking() {
+        ensureLoaded();
+        int k = window;
+
+        boolean gravityDecay = "gravity".equalsIgnoreCase(decay);
+        long now = System.currentTimeMillis();
+        // Min-heap of the best k seen so far; the root is the weakest kept candidate
+        PriorityQueue<double[]> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(e -> e[0]));
+        for (Candidate c : candidates.values()) {
+            double score = gravityDecay ? gravityScore(c, now) : c.rankKey;
+            if (heap.size() < k) {
+                heap.add(new double[] { score, c.postId });
+            } else if (score > heap.peek()[0]) {
+                heap.poll();
+                heap.add(new double[] { score, c.postId });
+            }
+        }
+
+        long[] ranked = new long[heap.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) {
+            ranked[i] = (long) heap.poll()[1];
+        }
+        return ranked;
+    }
+
+    // Keeps a ranking for later pages and returns the id it is kept under
+    public String keepSnapshot(long[] ranking) {
+        String id = UUID.randomUUID().toString();
+        snapshots.put(id, ranking);
+        return id;
+    }
+
+    // A kept ranking, or null once it has expired or been evicted
+    public long[] snapshot(String id) {
+        return snapshots.get(id);
+    }
+
+    public void onPostCreated(Long postId, LocalDateTime createdAt) {
+        if (!loaded) {
+            return; // picked up by the initial load
+        }
+        candidates.put(postId, new Candidate(postId, TimelineService.toMillis(createdAt), 0, 0, 0));
+        if (candidates.size() > window + window / 10) {
+            trimToWindow();
+        }
+    }
+
+    public void onPostDeleted(Long postId) {
+        candidates.remove(postId);
+    }
+
+    public void onLike(Long postId, int delta) {
+        update(postId, delta, 0, 0);
+    }
+
+    public void onComment(Long postId, int delta) {
+        update(postId, 0, delta, 0);
+    }
+
+    public void onShare(Long postId, int delta) {
+        update(postId, 0, 0, delta);
+    }
+
+    private void update(Long postId, int likes, int comments, int shares) {
+        Candidate c = candidates.get(postId);
+        if (c == null) {
+            return; // outside the candidate window
+        }
+        synchronized (c) {
+            c.likes = Math.max(0, c.likes + likes);
+            c.comments = Math.max(0, c.comments + comments);
+            c.shares = Math.max(0, c.shares + shares);
+            c.rankKey = exponentialKey(c);
+        }
+    }
+
+    private double engagement(Candidate c) {
+        return likeWeight * c.likes + commentWeight * c.comments + shareWeight * c.shares;
+    }
+
+    private double exponentialKey(Candidate c) {
+        double halfLifeMillis = halfLifeHours * 3_600_000d;
+        return Math.log1p(engagement(c)) + c.createdAtMillis * LN2 / halfLifeMillis;
+    }
+
+    private double gravityScore(Candidate c, long now) {
+        double ageHours = Math.max(0, now - c.createdAtMillis) / 3_600_000d;
+        return (engagement(c) + 1) / Math.pow(ageHours + 2, gravity);
+    }
+
+    private synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        for (Object[] row : postRepository.findRankingCandidates(PageRequest.of(0, window))) {
+            Candidate c = new Candidate((Long) row[0], TimelineService.toMillis((LocalDateTime) row[1]),
+                    (Integer) row[2], (Integer) row[3], (Integer) row[4]);
+            candidates.put(c.postId, c);
+        }
+        loaded = true;
+    }
+
+    // Drops the oldest candidates; runs only when the window has overgrown by 10%
+    private synchronized void trimToWindow() {
+        List<Candidate> all = new ArrayList<>(candidates.values());
+        if (all.size() <= window) {
+            return;
+        }
+        all.sort(Comparator.comparingLong(c -> c.createdAtMillis));
+        for (int i = 0; i < all.size() - window; i++) {
+            candidates.remove(all.get(i).postId);
+        }
+    }
+
+    private class Candidate {
+        private final long postId;
+        private final long createdAtMillis;
+        private int likes;
+        private int comments;
+        private int shares;
+        private volatile double rankKey;
+
+        private Candidate(long postId, long createdAtMillis, int likes, int comments, int shares) {
+            this.postId = postId;
+            this.createdAtMillis = createdAtMillis;
+            this.likes = likes;
+            this.comments = comments;
+            this.shares = shares;
+            this.rankKey = exponentialKey(this);
+        }
+    }
+}
@@ -1,35 +1,283 @@
 package com.socialmedia.backend.service;
 
+import com.socialmedia.backend.model.MediaBlob;
+import com.socialmedia.backend.repository.MediaBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
+/**
+ * Content-addressed upload storage. Bytes are hashed with SHA-256 while they
+ * are streamed to a staging file; identical content is stored once under
+ * uploads/ab/cd/{hash}... (first two byte pairs of the hash as directories) and
+ * reference-counted in media_blobs. Re-uploading an existing image reuses its
+ * derivatives without decoding it again.
+ *
+ * Names returned here are paths relative to uploads/ and are what posts,
+ * comments and profiles store. Every save adds one reference; callers release
+ * a name when the last field pointing at it is cleared.
+ */
 @Service
 public class FileUploadService {
+    private static final Logger log = LoggerFactory.getLogger(FileUploadService.class);
+    private static final int LOCK_STRIPES = 64;
+
     private final Path uploadPath = Paths.get("uploads");
+    private final Path stagingPath = Paths.get("upload-staging"); // outside the served directory
+    private final ImageDerivativeService imageDerivativeService;
+    private final MediaBlobRepository mediaBlobRepository;
+    private final Executor uploadExecutor;
+    // Serializes store/release of the same hash so files are never deleted under a concurrent upload
+    private final Object[] locks = new Object[LOCK_STRIPES];
 
-    public FileUploadService() {
+    public FileUploadService(ImageDerivativeService imageDerivativeService,
+            MediaBlobRepository mediaBlobRepository,
+            @Qualifier("uploadExecutor") Executor uploadExecutor) {
+        this.imageDerivativeService = imageDerivativeService;
+        this.mediaBlobRepository = mediaBlobRepository;
+        this.uploadExecutor = uploadExecutor;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
         try {
             Files.createDirectories(uploadPath);
+            Files.createDirectories(stagingPath);
         } catch (IOException e) {
             throw new RuntimeException("Could not create upload directory", e);
         }
     }
 
+    // Stores the upload as-is
     public String saveFile(MultipartFile file) {
+        Staged staged = stage(file);
+        try {
+            return store(staged, extensionOf(file.getOriginalFilename()), false, false).getFull();
+        } finally {
+            staged.discard();
+        }
+    }
+
+    // Stores an uploaded image as thumbnail/feed/full derivatives. Files ImageIO cannot
+    // re-encode are stored once and that name is returned for all three sizes.
+    public ImageDerivativeService.Derivatives saveImage(MultipartFile file) {
+        return saveImage(file, false);
+    }
+
+    private ImageDerivativeService.Derivatives saveImage(MultipartFile file, boolean renderInline) {
+        Staged staged = stage(file);
+        try {
+            return store(staged, extensionOf(file.getOriginalFilename()), true, renderInline);
+        } finally {
+            staged.discard();
+        }
+    }
+
+    // Stores a file assembled outside a multipart request (chunked uploads) whose SHA-256
+    // was already computed; the file is moved or deleted, never left behind
+    public ImageDerivativeService.Derivatives saveStagedImage(Path file, String hash, long size,
+            String originalFilename) {
+        Staged staged = new Staged(file, hash, size);
+        try {
+            return store(staged, extensionOf(originalFilename), true, false);
+        } finally {
+            staged.discard();
+        }
+    }
+
+    /**
+     * Stores several images concurrently and returns their derivatives in input order.
+     * Each upload worker renders its image itself rather than queueing behind the
+     * smaller image pool, so a post takes about as long as its slowest image.
+     * If any image fails, the ones that were stored are released again and the first
+     * failure is rethrown, so a failed request leaves no references behind.
+     */
+    public List<ImageDerivativeService.Derivatives> saveImages(List<MultipartFile> files) {
+        List<CompletableFuture<ImageDerivativeService.Derivatives>> futures = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            futures.add(CompletableFuture.supplyAsync(() -> saveImage(file, true), uploadExecutor));
+        }
+        // Wait for every task, not just the first failure, so nothing is stored after cleanup
+        List<ImageDerivativeService.Derivatives> stored = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        for (CompletableFuture<ImageDerivativeService.Derivatives> future : futures) {
+            try {
+                stored.add(future.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        }
+        if (failure != null) {
+            stored.forEach(derivatives -> release(derivatives.getFull()));
+            throw failure;
+        }
+        return stored;
+    }
+
+    // Drops one reference to a stored name; names from before content addressing are left alone
+    public void release(String name) {
+        String hash = hashOf(name);
+        if (hash == null) {
+            return;
+        }
+        synchronized (lockFor(hash)) {
+            Optional<MediaBlob> blob = mediaBlobRepository.findById(hash);
+            if (blob.isEmpty() || mediaBlobRepository.decrementRefCount(hash) == 0) {
+                return;
+            }
+            if (mediaBlobRepository.deleteIfUnreferenced(hash) == 1) {
+                deleteFiles(blob.get());
+            }
+        }
+    }
+
+    // Releases once the surrounding transaction commits, so a rollback never loses files still referenced
+    public void releaseAfterCommit(String name) {
+        if (name == null || name.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(name);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(name);
+            }
+        });
+    }
+
+    private ImageDerivativeService.Derivatives store(Staged staged, String extension, boolean image,
+            boolean renderInline) {
+        String hash = staged.hash;
+        synchronized (lockFor(hash)) {
+            Optional<MediaBlob> existing = mediaBlobRepository.findById(hash);
+            if (existing.isPresent() && mediaBlobRepository.incrementRefCount(hash) == 1) {
+                MediaBlob blob = existing.get();
+                return new ImageDerivativeService.Derivatives(blob.getThumbnail(), blob.getFeed(), blob.getFull());
+            }
+            try {
+                String shard = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/";
+                Path dir = Files.createDirectories(uploadPath.resolve(shard));
+                ImageDerivativeService.Derivatives stored = !image ? null
+                        : renderInline ? imageDerivativeService.renderInline(staged.path, dir, hash)
+                        : imageDerivativeService.render(staged.path, dir, hash);
+                if (stored != null) {
+                    stored = new ImageDerivativeService.Derivatives(shard + stored.getThumbnail(),
+                            shard + stored.getFeed(), shard + stored.getFull());
+                } else {
+                    String name = hash + "." + extension;
+                    Files.move(staged.path, dir.resolve(name), StandardCopyOption.REPLACE_EXISTING);
+                    stored = new ImageDerivativeService.Derivatives(shard + name, shard + name, shard + name);
+                }
+                mediaBlobRepository.addReference(hash, stored.getThumbnail(), stored.getFeed(), stored.getFull(),
+                        staged.size);
+                return stored;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not store file", e);
+            }
+        }
+    }
+
+    // Streams the upload to a staging file, hashing it on the way
+    private Staged stage(MultipartFile file) {
+        Path path = stagingPath.resolve(UUID.randomUUID() + ".upload");
         try {
-            String filename = UUID.randomUUID() + "-" + file.getOriginalFilename();
-            Path filePath = uploadPath.resolve(filename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            System.out.println("Saved file: " + filename); // Debug log
-            return filename;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size = 0;
+            byte[] buffer = new byte[64 * 1024];
+            try (InputStream in = file.getInputStream(); OutputStream out = Files.newOutputStream(path)) {
+                int n;
+                while ((n = in.read(buffer)) > 0) {
+                    digest.update(buffer, 0, n);
+                    out.write(buffer, 0, n);
+                    size += n;
+                }
+            }
+            return new Staged(path, HexFormat.of().formatHex(digest.digest()), size);
         } catch (IOException e) {
+            deleteQuietly(path);
             throw new RuntimeException("Could not store file", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void deleteFiles(MediaBlob blob) {
+        deleteQuietly(uploadPath.resolve(blob.getThumbnail()));
+        deleteQuietly(uploadPath.resolve(blob.getFeed()));
+        deleteQuietly(uploadPath.resolve(blob.getFull()));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private Object lockFor(String hash) {
+        return locks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    // The hash behind a stored name such as "ab/cd/abcd...ef_feed.jpg", or null for legacy names
+    static String hashOf(String name) {
+        if (name == null) {
+            return null;
+        }
+        String file = name.substring(name.lastIndexOf('/') + 1);
+        if (file.length() < 64) {
+            return null;
+        }
+        String hash = file.substring(0, 64);
+        return hash.chars().allMatch(c -> (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')) ? hash : null;
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null || filename.lastIndexOf('.') < 0) {
+            return "bin";
+        }
+        String extension = filename.substring(filename.lastIndexOf('.') + 1).toLowerCase();
+        return extension.matches("[a-z0-9]{1,8}") ? extension : "bin";
+    }
+
+    private class Staged {
+        private final Path path;
+        private final String hash;
+        private final long size;
+
+        private Staged(Path path, String hash, long size) {
+            this.path = path;
+            this.hash = hash;
+            this.size = size;
+        }
+
+        private void discard() {
+            deleteQuietly(path);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,302 @@
+package com.socialmedia.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Renders fixed-size derivatives of uploaded images with the JDK's ImageIO:
+ * a thumbnail for avatars and previews, a feed size for cards and a capped
+ * full size for the detail view. JPEGs are first turned upright according to
+ * their EXIF Orientation tag, since the derivatives carry no metadata and would
+ * otherwise show phone photos rotated or mirrored. Decoding is memory-heavy,
+ * so single uploads render on the bounded imageExecutor pool and wait for room
+ * when it is saturated; callers that already run on a bounded pool of their
+ * own (the upload workers of multi-image posts) render inline instead.
+ */
+@Service
+public class ImageDerivativeService {
+    private final Executor imageExecutor;
+    private final int thumbnailSize;
+    private final int feedSize;
+    private final int fullSize;
+    private final float jpegQuality;
+    private final long maxPixels;
+
+    public ImageDerivativeService(@Qualifier("imageExecutor") Executor imageExecutor,
+            @Value("${images.thumbnail-size:160}") int thumbnailSize,
+            @Value("${images.feed-size:720}") int feedSize,
+            @Value("${images.full-size:1600}") int fullSize,
+            @Value("${images.jpeg-quality:0.82}") float jpegQuality,
+            @Value("${images.max-pixels:40000000}") long maxPixels) {
+        this.imageExecutor = imageExecutor;
+        this.thumbnailSize = thumbnailSize;
+        this.feedSize = feedSize;
+        this.fullSize = fullSize;
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * Writes the derivatives of source into dir as baseName_thumb/_feed/_full and
+     * returns their file names, or null when source is not a still image ImageIO can
+     * decode (animated GIFs, video, unknown formats), in which case it should be kept as-is.
+     */
+    public Derivatives render(Path source, Path dir, String baseName) {
+        try {
+            return CompletableFuture.supplyAsync(() -> renderInline(source, dir, baseName), imageExecutor).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    // Same as render, but on the calling thread
+    public Derivatives renderInline(Path source, Path dir, String baseName) {
+        try {
+            BufferedImage image = decode(source);
+            if (image == null) {
+                return null;
+            }
+            // Anything with transparency stays PNG; everything else is re-encoded as JPEG
+            String extension = image.getColorModel().hasAlpha() ? "png" : "jpg";
+            BufferedImage full = scaleToFit(image, fullSize);
+            BufferedImage feed = scaleToFit(full, feedSize);
+            BufferedImage thumbnail = scaleToFit(feed, thumbnailSize);
+
+            String thumbnailName = baseName + "_thumb." + extension;
+            String feedName = baseName + "_feed." + extension;
+            String fullName = baseName + "_full." + extension;
+            write(thumbnail, dir.resolve(thumbnailName), extension);
+            write(feed, dir.resolve(feedName), extension);
+            write(full, dir.resolve(fullName), extension);
+            return new Derivatives(thumbnailName, feedName, fullName);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not process image", e);
+        }
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                if ("gif".equalsIgnoreCase(reader.getFormatName())) {
+                    return null; // re-encoding would drop the animation
+                }
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Checked from the header, before any pixel buffer is allocated
+                if ((long) width * height > maxPixels) {
+                    throw new RuntimeException("Image is too large");
+                }
+                int orientation = "jpeg".equalsIgnoreCase(reader.getFormatName()) ? exifOrientation(source) : 1;
+                // Subsample while decoding so huge photos never materialize at full resolution
+                int step = Math.max(1, Math.max(width, height) / fullSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return orient(reader.read(0, param), orientation);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /*
+     * EXIF Orientation (1-8) from the JPEG's APP1 segment; 1 (as stored) when absent
+     * or unreadable. The header markers are walked directly: ImageIO's metadata tree
+     * rejects common layouts such as Exif written ahead of JFIF.
+     */
+    private static int exifOrientation(Path source) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            DataInputStream data = new DataInputStream(in);
+            if (data.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = data.readUnsignedShort();
+                if ((marker & 0xFF00) != 0xFF00 || marker == 0xFFDA || marker == 0xFFD9) {
+                    return 1; // entropy-coded data or end of image: no Exif in the header
+                }
+                int length = data.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return 1;
+                }
+                if (marker == 0xFFE1) {
+                    byte[] segment = new byte[length];
+                    data.readFully(segment);
+                    int orientation = parseOrientation(segment);
+                    if (orientation != 0) {
+                        return orientation;
+                    }
+                } else {
+                    data.skipNBytes(length);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Broken metadata should not fail an upload whose pixels decode fine
+            return 1;
+        }
+    }
+
+    // Finds tag 0x0112 in IFD0 of an "Exif\0\0"-prefixed TIFF block; 0 when not there
+    private static int parseOrientation(byte[] app1) {
+        if (app1.length < 14 || app1[0] != 'E' || app1[1] != 'x' || app1[2] != 'i' || app1[3] != 'f') {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(app1, 6, app1.length - 6).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        if (ifd < 8 || ifd + 2 > tiff.limit()) {
+            return 0;
+        }
+        int entries = tiff.getShort(ifd) & 0xFFFF;
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > tiff.limit()) {
+                break;
+            }
+            if ((tiff.getShort(entry) & 0xFFFF) == 0x0112) {
+                int value = tiff.getShort(entry + 8) & 0xFFFF;
+                return value >= 1 && value <= 8 ? value : 0;
+            }
+        }
+        return 0;
+    }
+
+    // Maps stored pixels to display pixels for EXIF orientations 2-8; 5-8 swap width and height
+    private BufferedImage orient(BufferedImage image, int orientation) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);  // mirrored
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h); // rotated 180
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);  // flipped
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);   // transposed
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);  // needs 90 clockwise
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w); // transversed
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, w);  // needs 90 counter-clockwise
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swap = orientation >= 5;
+        int type = image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(swap ? h : w, swap ? w : h, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.drawImage(image, transform, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // Halves repeatedly before the final bilinear pass, which keeps downscales sharp without bicubic cost
+    private BufferedImage scaleToFit(BufferedImage source, int maxSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        if (Math.max(width, height) <= maxSide) {
+            return source;
+        }
+        double scale = (double) maxSide / Math.max(width, height);
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return current.getWidth() == targetWidth && current.getHeight() == targetHeight
+                ? current
+                : resize(current, targetWidth, targetHeight);
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, int height) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    // Written to a temporary file and moved into place, so a reader never sees a partial image
+    private void write(BufferedImage image, Path target, String extension) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part-" + Thread.currentThread().getId());
+        try {
+            encode(image, partial, extension);
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    private void encode(BufferedImage image, Path target, String extension) throws IOException {
+        if ("png".equals(extension)) {
+            ImageIO.write(image, "png", target.toFile());
+            return;
+        }
+        // JPEG has no alpha and some decoders produce CMYK or indexed images; normalize to RGB
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            image = resize(image, image.getWidth(), image.getHeight());
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+        Files.deleteIfExists(target);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Derivatives {
+        private final String thumbnail;
+        private final String feed;
+        private final String full;
+    }
+}
@@ -0,0 +1,100 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.cache.BoundedCache;
+import com.socialmedia.backend.repository.LikeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Liker sets per post as compressed bitmaps, so "has this viewer liked it" and
+ * the like count are answered in memory. Bitmaps are built lazily: the posts on
+ * a page that are not cached are loaded with one grouped query. Toggles patch
+ * cached bitmaps in place.
+ *
+ * A toggle that commits while a load's query runs may be missing from the
+ * loaded bitmap and, landing before it is cached, would not patch it either.
+ * Every toggle is therefore stamped first, and a load drops any bitmap whose
+ * post was toggled after the query started: either the load sees the stamp, or
+ * the stamp came after the bitmap was cached and the toggle patches it.
+ */
+@Component
+public class LikeIndex {
+    private final LikeRepository likeRepository;
+    private final BoundedCache<Long, LikerBitmap> bitmaps;
+    // Sequence number of the latest toggle per post; only needs to outlive a load's query
+    private final BoundedCache<Long, Long> toggledAt;
+    private final AtomicLong toggles = new AtomicLong();
+
+    public LikeIndex(LikeRepository likeRepository,
+            @Value("${likes.index.max-posts:20000}") int maxPosts,
+            @Value("${likes.index.ttl-seconds:600}") long ttlSeconds) {
+        this.likeRepository = likeRepository;
+        this.bitmaps = new BoundedCache<>(maxPosts, Duration.ofSeconds(ttlSeconds));
+        this.toggledAt = new BoundedCache<>(maxPosts, Duration.ofMinutes(1));
+    }
+
+    // Bitmaps for all the given posts, loading the uncached ones in one query
+    public Map<Long, LikerBitmap> forPosts(Collection<Long> postIds) {
+        Map<Long, LikerBitmap> result = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long postId : postIds) {
+            LikerBitmap bitmap = bitmaps.get(postId);
+            if (bitmap != null) {
+                result.put(postId, bitmap);
+            } else {
+                misses.add(postId);
+            }
+        }
+        if (!misses.isEmpty()) {
+            long loadStart = toggles.get();
+            Map<Long, LikerBitmap> loaded = new HashMap<>();
+            for (Long postId : misses) {
+                loaded.put(postId, new LikerBitmap());
+            }
+            for (Object[] row : likeRepository.findLikersByPostIds(misses)) {
+                loaded.get((Long) row[0]).add((Long) row[1]);
+            }
+            loaded.forEach((postId, bitmap) -> {
+                bitmaps.put(postId, bitmap);
+                Long stamp = toggledAt.get(postId);
+                if (stamp != null && stamp > loadStart) {
+                    bitmaps.invalidate(postId);
+                }
+            });
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    // Called after the toggle has committed, so any query started later sees it
+    public void onLike(Long postId, Long userId, boolean liked) {
+        toggledAt.put(postId, toggles.incrementAndGet());
+        LikerBitmap bitmap = bitmaps.get(postId);
+        if (bitmap == null) {
+            return; // built from the table on next read
+        }
+        if (liked) {
+            bitmap.add(userId);
+        } else {
+            bitmap.remove(userId);
+        }
+    }
+
+    // Whether userId likes postId per the cached bitmap, or null when the post is not cached
+    public Boolean cachedState(Long postId, Long userId) {
+        LikerBitmap bitmap = bitmaps.get(postId);
+        return bitmap != null ? bitmap.contains(userId) : null;
+    }
+
+    public void invalidate(Long postId) {
+        bitmaps.invalidate(postId);
+    }
+}
@@ -0,0 +1,241 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.model.Post;
+import com.socialmedia.backend.model.User;
+import com.socialmedia.backend.repository.LikeRepository;
+import com.socialmedia.backend.repository.PostRepository;
+import com.socialmedia.backend.repository.UserRepository;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional write-behind mode for likes. Toggles record the desired final state
+ * per (user, post) in striped in-memory maps and return immediately; a
+ * scheduled flush writes only the net changes as JDBC batches.
+ *
+ * A toggle costs no SQL when its post's liker bitmap is cached in LikeIndex.
+ *
+ * Flushes are idempotent: inserts use INSERT IGNORE against uk_likes_user_post
+ * and like_count is adjusted by the rows actually inserted or deleted, so
+ * replaying the same intents never double-counts.
+ */
+@Component
+public class LikeWriteBehindBuffer {
+    private static final Logger log = LoggerFactory.getLogger(LikeWriteBehindBuffer.class);
+    private static final int STRIPES = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LikeRepository likeRepository;
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final LikeIndex likeIndex;
+    private final boolean enabled;
+
+    // Desired like state per (user, post); the last toggle wins
+    private final Map<LikeKey, Boolean>[] stripes;
+    // Intents drained by the running flush, still authoritative until it commits
+    private volatile Map<LikeKey, Boolean> inFlight = Map.of();
+
+    @SuppressWarnings("unchecked")
+    public LikeWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            LikeRepository likeRepository,
+            PostRepository postRepository,
+            UserRepository userRepository,
+            NotificationService notificationService,
+            LikeIndex likeIndex,
+            @Value("${likes.write-behind.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.likeRepository = likeRepository;
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.likeIndex = likeIndex;
+        this.enabled = enabled;
+        this.stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new HashMap<>();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Flips the user's like on the post and returns the new state
+    public boolean toggle(Long userId, Long postId) {
+        LikeKey key = new LikeKey(userId, postId);
+        Map<LikeKey, Boolean> stripe = stripeFor(postId);
+        synchronized (stripe) {
+            Boolean pending = pendingLocked(stripe, key);
+            if (pending != null) {
+                stripe.put(key, !pending);
+                return !pending;
+            }
+        }
+        // No pending intent: the persisted state comes from the post's bitmap, which is
+        // cached for every rendered post, and only otherwise from the table, outside the stripe lock
+        Boolean cached = likeIndex.cachedState(postId, userId);
+        boolean persisted = cached != null ? cached : likeRepository.existsByUserIdAndPostId(userId, postId);
+        synchronized (stripe) {
+            Boolean pending = pendingLocked(stripe, key);
+            boolean liked = pending != null ? !pending : !persisted;
+            stripe.put(key, liked);
+            return liked;
+        }
+    }
+
+    // Pending state for a viewer's like on a post, or null when nothing is buffered
+    public Boolean pendingState(Long userId, Long postId) {
+        Map<LikeKey, Boolean> stripe = stripeFor(postId);
+        synchronized (stripe) {
+            return pendingLocked(stripe, new LikeKey(userId, postId));
+        }
+    }
+
+    private Boolean pendingLocked(Map<LikeKey, Boolean> stripe, LikeKey key) {
+        Boolean pending = stripe.get(key);
+        return pending != null ? pending : inFlight.get(key);
+    }
+
+    @Scheduled(fixedDelayString = "${likes.write-behind.flush-interval-ms:250}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        // Published before any stripe is drained: each intent moves into it under its
+        // stripe's lock, so a toggle never finds it in neither place
+        Map<LikeKey, Boolean> drained = new ConcurrentHashMap<>();
+        inFlight = drained;
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (stripes[i]) {
+                drained.putAll(stripes[i]);
+                stripes[i].clear();
+            }
+        }
+        if (drained.isEmpty()) {
+            inFlight = Map.of();
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(drained));
+            // Bitmaps loaded while these intents were buffered missed them; add/remove is idempotent
+            drained.forEach((key, liked) -> likeIndex.onLike(key.getPostId(), key.getUserId(), liked));
+        } catch (RuntimeException e) {
+            log.error("Like flush failed, re-queueing {} intents", drained.size(), e);
+            requeue(drained);
+        } finally {
+            inFlight = Map.of();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(Map<LikeKey, Boolean> intents) {
+        List<LikeKey> likes = new ArrayList<>();
+        List<LikeKey> unlikes = new ArrayList<>();
+        intents.forEach((key, liked) -> (liked ? likes : unlikes).add(key));
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        List<LikeKey> inserted = new ArrayList<>();
+
+        if (!likes.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[] rows = jdbcTemplate.batchUpdate(
+                    "INSERT IGNORE INTO likes (user_id, post_id, created_at) VALUES (?, ?, ?)",
+                    likes.stream().map(k -> new Object[] { k.getUserId(), k.getPostId(), now })
+                            .collect(Collectors.toList()));
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] > 0) {
+                    inserted.add(likes.get(i));
+                    deltas.merge(likes.get(i).getPostId(), 1, Integer::sum);
+                }
+            }
+        }
+        if (!unlikes.isEmpty()) {
+            int[] rows = jdbcTemplate.batchUpdate(
+                    "DELETE FROM likes WHERE user_id = ? AND post_id = ?",
+                    unlikes.stream().map(k -> new Object[] { k.getUserId(), k.getPostId() })
+                            .collect(Collectors.toList()));
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] > 0) {
+                    deltas.merge(unlikes.get(i).getPostId(), -rows[i], Integer::sum);
+                }
+            }
+        }
+        if (!deltas.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE posts SET like_count = GREATEST(like_count + ?, 0) WHERE id = ?",
+                    deltas.entrySet().stream().map(e -> new Object[] { e.getValue(), e.getKey() })
+                            .collect(Collectors.toList()));
+        }
+        notifyLikes(inserted);
+    }
+
+    // Only net new likes notify; an unlike that cancels a buffered like never reaches the database
+    private void notifyLikes(List<LikeKey> inserted) {
+        if (inserted.isEmpty()) {
+            return;
+        }
+        Map<Long, User> users = byId(userRepository.findAllById(
+                inserted.stream().map(LikeKey::getUserId).collect(Collectors.toSet())), User::getId);
+        Map<Long, Post> posts = byId(postRepository.findAllById(
+                inserted.stream().map(LikeKey::getPostId).collect(Collectors.toSet())), Post::getId);
+        for (LikeKey key : inserted) {
+            User actor = users.get(key.getUserId());
+            Post post = posts.get(key.getPostId());
+            if (actor != null && post != null) {
+                notificationService.createNotification(new AuthenticatedUser(actor), post.getUser(), post, "LIKE");
+            }
+        }
+    }
+
+    private void requeue(Map<LikeKey, Boolean> intents) {
+        intents.forEach((key, liked) -> {
+            Map<LikeKey, Boolean> stripe = stripeFor(key.getPostId());
+            synchronized (stripe) {
+                stripe.putIfAbsent(key, liked); // a newer toggle takes precedence
+            }
+        });
+    }
+
+    private Map<LikeKey, Boolean> stripeFor(Long postId) {
+        return stripes[(int) (postId % STRIPES)];
+    }
+
+    private static <T> Map<Long, T> byId(Collection<T> items, Function<T, Long> id) {
+        return items.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    @Data
+    private static class LikeKey {
+        private final long userId;
+        private final long postId;
+    }
+}
@@ -0,0 +1,262 @@
+package com.socialmedia.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of user ids in the style of a Roaring bitmap. Ids are split
+ * into a high part, which selects a container, and a low 16-bit part stored in
+ * it. Sparse containers are sorted char arrays (2 bytes per id); once one holds
+ * more than 4096 ids it becomes a fixed 8 KB bitset.
+ *
+ * Most posts have few likers spread over the whole id range, where one
+ * container per id would cost more than the id itself, so sets of up to
+ * SPARSE_MAX ids are kept as a plain sorted long array until they grow.
+ */
+public class LikerBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int SPARSE_MAX = 256;
+
+    private long[] sparse = new long[2]; // sorted ids while in sparse mode, null afterwards
+    private long[] keys = new long[0];
+    private Container[] containers = new Container[0];
+    private int size; // number of containers in use
+    private int cardinality;
+
+    public synchronized boolean add(long userId) {
+        if (sparse != null) {
+            int i = Arrays.binarySearch(sparse, 0, cardinality, userId);
+            if (i >= 0) {
+                return false;
+            }
+            if (cardinality < SPARSE_MAX) {
+                i = -i - 1;
+                if (cardinality == sparse.length) {
+                    sparse = Arrays.copyOf(sparse, Math.min(SPARSE_MAX, cardinality * 2));
+                }
+                System.arraycopy(sparse, i, sparse, i + 1, cardinality - i);
+                sparse[i] = userId;
+                cardinality++;
+                return true;
+            }
+            toContainers();
+        }
+        long high = userId >>> 16;
+        char low = (char) userId;
+        int i = Arrays.binarySearch(keys, 0, size, high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new ArrayContainer());
+        }
+        int before = containers[i].size();
+        containers[i] = containers[i].add(low);
+        boolean added = containers[i].size() > before;
+        if (added) {
+            cardinality++;
+        }
+        return added;
+    }
+
+    public synchronized boolean remove(long userId) {
+        if (sparse != null) {
+            int i = Arrays.binarySearch(sparse, 0, cardinality, userId);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(sparse, i + 1, sparse, i, cardinality - i - 1);
+            cardinality--;
+            return true;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, userId >>> 16);
+        if (i < 0) {
+            return false;
+        }
+        int before = containers[i].size();
+        containers[i] = containers[i].remove((char) userId);
+        boolean removed = containers[i].size() < before;
+        if (removed) {
+            cardinality--;
+            if (containers[i].size() == 0) {
+                removeContainer(i);
+            }
+        }
+        return removed;
+    }
+
+    public synchronized boolean contains(long userId) {
+        if (sparse != null) {
+            return Arrays.binarySearch(sparse, 0, cardinality, userId) >= 0;
+        }
+        int i = Arrays.binarySearch(keys, 0, size, userId >>> 16);
+        return i >= 0 && containers[i].contains((char) userId);
+    }
+
+    public synchronized int cardinality() {
+        return cardinality;
+    }
+
+    // Approximate heap footprint: arrays plus per-object headers
+    public synchronized long memoryBytes() {
+        if (sparse != null) {
+            return 16 + 16 + sparse.length * 8L + 16 + 16;
+        }
+        long bytes = 16 + 16 + keys.length * 8L + 16 + containers.length * 4L;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].memoryBytes();
+        }
+        return bytes;
+    }
+
+    private void toContainers() {
+        long[] ids = sparse;
+        int count = cardinality;
+        sparse = null;
+        cardinality = 0;
+        for (int i = 0; i < count; i++) {
+            add(ids[i]);
+        }
+    }
+
+    private void insertContainer(int index, long high, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = high;
+        containers[index] = container;
+        size++;
+    }
+
+    private void removeContainer(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private interface Container {
+        Container add(char value);
+
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int size();
+
+        long memoryBytes();
+    }
+
+    private static class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int size;
+
+        @Override
+        public Container add(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, size + (size >> 1) + 1));
+            }
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, size, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, size - i - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public long memoryBytes() {
+            return 16 + 16 + values.length * 2L;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static class BitmapContainer implements Container {
+        private final long[] words = new long[1024];
+        private int size;
+
+        @Override
+        public Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                size++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                size--;
+                if (size <= ARRAY_MAX / 2) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public long memoryBytes() {
+            return 16 + 16 + words.length * 8L;
+        }
+
+        private ArrayContainer toArray() {
+            ArrayContainer array = new ArrayContainer();
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    array.add((char) (w * 64 + Long.numberOfTrailingZeros(word)));
+                    word &= word - 1;
+                }
+            }
+            return array;
+        }
+    }
+}
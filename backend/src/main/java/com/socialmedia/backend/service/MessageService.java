@@ -2,10 +2,12 @@ package com.socialmedia.backend.service;
 
 import com.socialmedia.backend.dto.MessageResponse;
 import com.socialmedia.backend.dto.ConversationResponse;
+import com.socialmedia.backend.logging.EventLog;
 import com.socialmedia.backend.model.Message;
 import com.socialmedia.backend.model.User;
 import com.socialmedia.backend.repository.MessageRepository;
 import com.socialmedia.backend.repository.UserRepository;
+import com.socialmedia.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -18,9 +20,10 @@ public class MessageService {
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final CustomUserDetailsService customUserDetailsService;
+    private final EventLog eventLog;
 
-    public MessageResponse sendMessage(String token, String receiverUsername, String content) {
-        User sender = customUserDetailsService.getUserFromToken(token);
+    public MessageResponse sendMessage(AuthenticatedUser currentUser, String receiverUsername, String content) {
+        User sender = customUserDetailsService.getReference(currentUser);
         User receiver = userRepository.findByUsername(receiverUsername)
             .orElseThrow(() -> new RuntimeException("Receiver not found"));
 
@@ -30,32 +33,25 @@ public class MessageService {
         message.setContent(content);
 
         Message savedMessage = messageRepository.save(message);
-        System.out.println("Saved message: id=" + savedMessage.getId() + ", content=" + savedMessage.getContent() +
-                          ", sender_id=" + savedMessage.getSender().getId() + " (" + savedMessage.getSender().getUsername() + ")" +
-                          ", receiver_id=" + savedMessage.getReceiver().getId() + " (" + savedMessage.getReceiver().getUsername() + ")");
+        eventLog.event("messages", "sent", "id", savedMessage.getId(), "from", sender.getId(),
+                "to", receiver.getId());
         return convertToDTO(savedMessage);
     }
 
-    public List<MessageResponse> getConversation(String token, String otherUsername) {
-        User currentUser = customUserDetailsService.getUserFromToken(token);
+    public List<MessageResponse> getConversation(AuthenticatedUser currentUser, String otherUsername) {
         User otherUser = userRepository.findByUsername(otherUsername)
             .orElseThrow(() -> new RuntimeException("User not found"));
-        System.out.println("Fetching conversation for currentUser: " + currentUser.getId() + " (" + currentUser.getUsername() + "), otherUser: " + otherUser.getId() + " (" + otherUser.getUsername() + ")");
         List<Message> messages = messageRepository.findConversation(currentUser.getId(), otherUser.getId());
-        System.out.println("Messages found: " + messages.size());
-        messages.forEach(msg -> System.out.println("Message: id=" + msg.getId() + ", content=" + msg.getContent() +
-                                                  ", sender_id=" + msg.getSender().getId() + " (" + msg.getSender().getUsername() + ")" +
-                                                  ", receiver_id=" + msg.getReceiver().getId() + " (" + msg.getReceiver().getUsername() + ")"));
+        eventLog.event("messages", "conversation_read", "user", currentUser.getId(), "other", otherUser.getId(),
+                "count", messages.size());
         return messages.stream()
             .map(this::convertToDTO)
             .collect(Collectors.toList());
     }
 
-    public List<ConversationResponse> getConversations(String token) {
-        User currentUser = customUserDetailsService.getUserFromToken(token);
-        System.out.println("Fetching conversations for user: " + currentUser.getId() + " (" + currentUser.getUsername() + ")");
+    public List<ConversationResponse> getConversations(AuthenticatedUser currentUser) {
         List<Message> latestMessages = messageRepository.findLatestMessagesForConversations(currentUser.getId());
-        System.out.println("Conversations found: " + latestMessages.size());
+        eventLog.event("messages", "conversations_read", "user", currentUser.getId(), "count", latestMessages.size());
         return latestMessages.stream()
             .map(message -> {
                 User otherUser = message.getSender().getId().equals(currentUser.getId())
@@ -69,7 +65,6 @@ public class MessageService {
                 dto.setLastMessageContent(message.getContent());
                 dto.setLastMessageCreatedAt(message.getCreatedAt());
                 dto.setLastMessageRead(message.isRead());
-                System.out.println("Conversation with: " + otherUser.getUsername() + ", last message: " + message.getContent());
                 return dto;
             })
             .collect(Collectors.toList());
@@ -5,6 +5,7 @@ import com.socialmedia.backend.model.Notification;
 import com.socialmedia.backend.model.Post;
 import com.socialmedia.backend.model.User;
 import com.socialmedia.backend.repository.NotificationRepository;
+import com.socialmedia.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 
 import java.util.List;
@@ -18,7 +19,8 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final CustomUserDetailsService customUserDetailsService;
 
-    public void createNotification(User actor, User postOwner, Post post, String type) {
+    // The actor is the signed-in user; their name comes from the principal, so no user row is loaded
+    public void createNotification(AuthenticatedUser actor, User postOwner, Post post, String type) {
         // Don't notify the user if they interacted with their own post
         if (actor.getId().equals(postOwner.getId())) {
             return;
@@ -26,7 +28,7 @@ public class NotificationService {
 
         Notification notification = new Notification();
         notification.setUser(postOwner);
-        notification.setActor(actor);
+        notification.setActor(customUserDetailsService.getReference(actor));
         notification.setPost(post);
         notification.setType(type);
         String action = switch (type) {
@@ -53,9 +55,8 @@ public class NotificationService {
         return dto;
     }
 
-    public List<NotificationResponse> getUserNotifications(String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(user.getId())
+    public List<NotificationResponse> getUserNotifications(AuthenticatedUser currentUser) {
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId())
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
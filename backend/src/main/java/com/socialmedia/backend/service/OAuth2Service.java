@@ -11,7 +11,6 @@ import com.socialmedia.backend.security.JwtTokenUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
 import jakarta.servlet.http.HttpSession;
@@ -34,7 +33,7 @@ public class OAuth2Service {
 
     private final UserRepository userRepository;
     private final JwtTokenUtil jwtTokenUtil;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
 
     private GoogleAuthorizationCodeFlow flow;
 
@@ -92,7 +91,9 @@ public class OAuth2Service {
                         newUser.setUsername(uniqueUsername);
                         newUser.setFullName(name != null ? name : "");
                         newUser.setPassword("");
-                        return userRepository.save(newUser);
+                        User saved = userRepository.save(newUser);
+                        userDetailsService.evict(saved);
+                        return saved;
                     });
 
             // Generate JWT token
@@ -0,0 +1,60 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.cache.BoundedCache;
+import com.socialmedia.backend.dto.PostResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Viewer-independent PostResponse templates keyed by post id. isLiked/isSaved
+ * in cached entries are meaningless and are overlaid per request. Counter
+ * changes patch entries in place; edits and deletes invalidate them. Changes
+ * to a share's root post or to an author's profile are picked up on expiry.
+ */
+@Component
+public class PostCache {
+    private final BoundedCache<Long, PostResponse> cache;
+
+    public PostCache(@Value("${posts.cache.max-size:10000}") int maxSize,
+            @Value("${posts.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = new BoundedCache<>(maxSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public PostResponse get(Long postId) {
+        return cache.get(postId);
+    }
+
+    public void put(PostResponse template) {
+        cache.put(template.getId(), template);
+    }
+
+    public void invalidate(Long postId) {
+        cache.invalidate(postId);
+    }
+
+    public void adjustLikes(Long postId, int delta) {
+        cache.update(postId, dto -> {
+            PostResponse copy = dto.copy();
+            copy.setLikes(Math.max(0, dto.getLikes() + delta));
+            return copy;
+        });
+    }
+
+    public void adjustComments(Long postId, int delta) {
+        cache.update(postId, dto -> {
+            PostResponse copy = dto.copy();
+            copy.setComments(Math.max(0, dto.getComments() + delta));
+            return copy;
+        });
+    }
+
+    public void adjustShares(Long postId, int delta) {
+        cache.update(postId, dto -> {
+            PostResponse copy = dto.copy();
+            copy.setShareCount(Math.max(0, dto.getShareCount() + delta));
+            return copy;
+        });
+    }
+}
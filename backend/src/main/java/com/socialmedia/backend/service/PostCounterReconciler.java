@@ -0,0 +1,33 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recomputes the denormalized like/comment counters on posts from
+ * the child tables, walking the id space in small ranges so each UPDATE only
+ * locks a bounded number of rows.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostCounterReconciler {
+    private static final Logger log = LoggerFactory.getLogger(PostCounterReconciler.class);
+    private static final long BATCH_SIZE = 1000;
+
+    private final PostRepository postRepository;
+
+    // First pass shortly after startup also backfills counters for pre-existing posts
+    @Scheduled(initialDelay = 60000, fixedDelayString = "${posts.counters.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        long maxId = postRepository.findMaxId();
+        int updated = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += BATCH_SIZE) {
+            updated += postRepository.reconcileCounters(fromId, fromId + BATCH_SIZE - 1);
+        }
+        log.info("Reconciled like/comment counters across {} posts", updated);
+    }
+}
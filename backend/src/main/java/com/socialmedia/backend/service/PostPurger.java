@@ -0,0 +1,139 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Removes tombstoned posts and everything that references them. Each statement
+ * touches at most batch-size rows and commits on its own, so a viral post never
+ * holds a large lock set, and runs pause between batches to leave room for
+ * foreground traffic. No progress is stored: every step deletes whatever is
+ * still left, so after a restart the next run simply continues where the last
+ * one stopped.
+ */
+@Component
+public class PostPurger {
+    private static final Logger log = LoggerFactory.getLogger(PostPurger.class);
+
+    // Dependents first; the post row itself goes last once nothing references it
+    private static final String[] DEPENDENT_STEPS = {
+            "DELETE FROM notifications WHERE post_id = ? LIMIT ?",
+            "DELETE FROM likes WHERE post_id = ? LIMIT ?",
+            "DELETE FROM comments WHERE post_id = ? LIMIT ?",
+            "DELETE FROM saved_post WHERE post_id = ? LIMIT ?",
+            "UPDATE posts SET original_post_id = NULL WHERE original_post_id = ? LIMIT ?",
+            "UPDATE posts SET root_post_id = NULL WHERE root_post_id = ? LIMIT ?",
+    };
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final FileUploadService fileUploadService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMillis;
+
+    public PostPurger(PostRepository postRepository, JdbcTemplate jdbcTemplate,
+            FileUploadService fileUploadService,
+            @Value("${posts.purge.batch-size:500}") int batchSize,
+            @Value("${posts.purge.max-batches-per-run:200}") int maxBatchesPerRun,
+            @Value("${posts.purge.batch-pause-ms:50}") long pauseMillis) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fileUploadService = fileUploadService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(initialDelay = 30000, fixedDelayString = "${posts.purge.interval-ms:10000}")
+    public void purge() {
+        List<Long> tombstones = postRepository.findTombstonedIds(PageRequest.of(0, 100));
+        int budget = maxBatchesPerRun;
+        int purged = 0;
+        for (Long postId : tombstones) {
+            budget = purgeDependents(postId, budget);
+            if (budget <= 0) {
+                break; // resumes on the next run
+            }
+            List<String> images = jdbcTemplate.queryForList(
+                    "SELECT image_url FROM posts WHERE id = ? AND deleted_at IS NOT NULL", String.class, postId);
+            if (jdbcTemplate.update("DELETE FROM posts WHERE id = ? AND deleted_at IS NOT NULL", postId) == 1) {
+                releaseAll(images);
+            }
+            budget--;
+            purged++;
+        }
+        if (purged > 0) {
+            log.info("Purged {} deleted posts", purged);
+        }
+    }
+
+    // Runs every step for the post until it has no rows left; returns the remaining batch budget
+    private int purgeDependents(Long postId, int budget) {
+        budget = releaseCommentImages(postId, budget);
+        for (String step : DEPENDENT_STEPS) {
+            while (budget > 0) {
+                int rows = jdbcTemplate.update(step, postId, batchSize);
+                budget--;
+                if (rows < batchSize) {
+                    break;
+                }
+                pause();
+            }
+            if (budget <= 0) {
+                return 0;
+            }
+        }
+        return budget;
+    }
+
+    // Clears comment image references before the comments go; a crash in between only leaks a reference
+    private int releaseCommentImages(Long postId, int budget) {
+        while (budget > 0) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "SELECT id, image_url FROM comments WHERE post_id = ? AND image_url IS NOT NULL LIMIT ?",
+                    (rs, i) -> new Object[] { rs.getLong(1), rs.getString(2) }, postId, batchSize);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE comments SET image_url = NULL WHERE id = ?",
+                        rows.stream().map(row -> new Object[] { row[0] }).collect(Collectors.toList()));
+                releaseAll(rows.stream().map(row -> (String) row[1]).collect(Collectors.toList()));
+            }
+            budget--;
+            if (rows.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+        return budget;
+    }
+
+    private void releaseAll(List<String> imageUrls) {
+        for (String imageUrl : imageUrls) {
+            if (imageUrl != null && !imageUrl.isEmpty()) {
+                for (String name : imageUrl.split(",")) {
+                    fileUploadService.release(name);
+                }
+            }
+        }
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
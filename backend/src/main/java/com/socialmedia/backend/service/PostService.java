@@ -1,19 +1,41 @@
 package com.socialmedia.backend.service;
 
+import com.socialmedia.backend.dto.CommentPageResponse;
 import com.socialmedia.backend.dto.CommentResponse;
+import com.socialmedia.backend.dto.FeedCursor;
+import com.socialmedia.backend.dto.PostPageResponse;
 import com.socialmedia.backend.dto.PostResponse;
+import com.socialmedia.backend.logging.EventLog;
 import com.socialmedia.backend.model.*;
 import com.socialmedia.backend.repository.*;
+import com.socialmedia.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
+
     private final PostRepository postRepository;
     private final LikeRepository likeRepository;
     private final CommentRepository commentRepository;
@@ -21,59 +43,234 @@ public class PostService {
     private final FileUploadService fileUploadService;
     private final SavedPostRepository savedPostRepository;
     private final NotificationService notificationService;
-    private final NotificationRepository notificationRepository;
-
-    public PostResponse createPost(String token, String content, MultipartFile[] images) {
-        User user = customUserDetailsService.getUserFromToken(token);
+    private final TimelineService timelineService;
+    private final PostCache postCache;
+    private final LikeWriteBehindBuffer likeBuffer;
+    private final ShareCounter shareCounter;
+    private final FeedRankingService feedRankingService;
+    private final TrendingService trendingService;
+    private final LikeIndex likeIndex;
+    private final CommentPreviewCache commentPreviewCache;
+    private final ChunkedUploadService chunkedUploadService;
+    private final EventLog eventLog;
+
+    // uploadIds name completed chunked uploads; they follow the multipart images in the given order
+    public PostResponse createPost(AuthenticatedUser currentUser, String content, MultipartFile[] images, List<String> uploadIds) {
+        User user = customUserDetailsService.getReference(currentUser);
 
         Post post = new Post();
         post.setUser(user);
         post.setContent(content);
 
         if (images != null && images.length > 0) {
-            StringBuilder imageUrls = new StringBuilder();
-            for (MultipartFile image : images) {
-                if (!image.isEmpty()) {
-                    String imageUrl = fileUploadService.saveFile(image);
-                    if (imageUrls.length() > 0) {
-                        imageUrls.append(",");
-                    }
-                    imageUrls.append(imageUrl);
-                }
+            storeImages(post, new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), images);
+        }
+        Post savedPost;
+        try {
+            if (uploadIds != null && !uploadIds.isEmpty()) {
+                addUploads(post, chunkedUploadService.claim(currentUser, uploadIds));
             }
-            post.setImageUrl(imageUrls.toString());
+            savedPost = postRepository.save(post);
+        } catch (RuntimeException e) {
+            // The post never took over the references of its stored and claimed images
+            splitNames(post.getImageUrl()).forEach(fileUploadService::release);
+            throw e;
         }
+        timelineService.fanOut(user.getId(), savedPost.getId(), savedPost.getCreatedAt());
+        feedRankingService.onPostCreated(savedPost.getId(), savedPost.getCreatedAt());
+        return convertToDTO(savedPost, currentUser);
+    }
 
-        Post savedPost = postRepository.save(post);
-        return convertToDTO(savedPost, token);
+    public PostResponse getPostById(Long id, AuthenticatedUser currentUser) {
+        List<PostResponse> found = loadByIds(List.of(id), currentUser);
+        if (found.isEmpty()) {
+            throw new RuntimeException("Post not found");
+        }
+        return found.get(0);
     }
 
-    public PostResponse getPostById(Long id, String token) {
-        Post post = postRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Post not found"));
-        return convertToDTO(post, token);
+    public PostPageResponse getFeed(String cursor, Integer limit, AuthenticatedUser currentUser) {
+        int pageSize = pageSize(limit);
+        // Fetch one extra row to know whether another page exists
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<Object[]> entries;
+        if (cursor == null || cursor.isEmpty()) {
+            entries = postRepository.findFeedEntries(page);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            entries = postRepository.findFeedEntriesBefore(after.getCreatedAt(), after.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            Object[] last = entries.get(pageSize - 1);
+            nextCursor = new FeedCursor((LocalDateTime) last[1], (Long) last[0]).encode();
+        }
+
+        List<Long> ids = entries.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        return new PostPageResponse(loadByIds(ids, currentUser), nextCursor);
     }
 
-    public List<PostResponse> getAllPosts() {
-        return postRepository.findAllByOrderByCreatedAtDesc()
-                .stream()
-                .map(post -> convertToDTO(post, null))
-                .collect(Collectors.toList());
+    /**
+     * Pages of the engagement ranking. The first page ranks every candidate; when more
+     * pages follow, that order is kept as a snapshot and the cursor points into it, so
+     * posts moving between requests are neither repeated nor skipped. Once a snapshot
+     * has expired the next page is read from the live ranking at the same offset.
+     */
+    public PostPageResponse getRankedFeed(String cursor, Integer limit, AuthenticatedUser currentUser) {
+        int pageSize = pageSize(limit);
+        RankPosition after = cursor == null || cursor.isEmpty() ? null : RankPosition.decode(cursor);
+        int offset = after != null ? after.offset : 0;
+        String snapshotId = after != null ? after.snapshotId : null;
+        long[] ranking = snapshotId != null ? feedRankingService.snapshot(snapshotId) : null;
+        if (ranking == null) {
+            ranking = feedRankingService.ranking();
+            snapshotId = null;
+        }
+
+        int end = Math.min(ranking.length, offset + pageSize);
+        List<Long> ids = new ArrayList<>();
+        for (int i = offset; i < end; i++) {
+            ids.add(ranking[i]);
+        }
+        String nextCursor = null;
+        if (end < ranking.length) {
+            if (snapshotId == null) {
+                snapshotId = feedRankingService.keepSnapshot(ranking);
+            }
+            nextCursor = new RankPosition(snapshotId, end).encode();
+        }
+        return new PostPageResponse(loadByIds(ids, currentUser), nextCursor);
+    }
+
+    public List<PostResponse> getTrending(Integer limit, AuthenticatedUser currentUser) {
+        return loadByIds(trendingService.topPosts(pageSize(limit)), currentUser);
+    }
+
+    public PostPageResponse getTimeline(AuthenticatedUser currentUser, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        FeedCursor after = cursor == null || cursor.isEmpty() ? null : FeedCursor.decode(cursor);
+
+        TimelineBuffer.Slice slice = timelineService.read(currentUser.getId(), after, pageSize + 1);
+        int count = Math.min(slice.getSize(), pageSize);
+
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(slice.getPostIds()[i]);
+        }
+
+        String nextCursor = null;
+        if (slice.getSize() > pageSize) {
+            nextCursor = new FeedCursor(
+                    TimelineService.toDateTime(slice.getTimestamps()[count - 1]),
+                    slice.getPostIds()[count - 1]).encode();
+        }
+        return new PostPageResponse(loadByIds(ids, currentUser), nextCursor);
     }
 
-    public List<PostResponse> getUserPosts(Long userId) {
-        return postRepository.findByUserIdOrderByCreatedAtDesc(userId)
-                .stream()
-                .map(post -> convertToDTO(post, null))
+    private int pageSize(Integer limit) {
+        return limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    public List<PostResponse> getUserPosts(Long userId, AuthenticatedUser currentUser) {
+        return convertToDTOs(postRepository.findByUserIdOrderByCreatedAtDesc(userId), currentUser);
+    }
+
+    private PostResponse convertToDTO(Post post, AuthenticatedUser currentUser) {
+        return convertToDTOs(List.of(post), currentUser).get(0);
+    }
+
+    private List<PostResponse> convertToDTOs(List<Post> posts, AuthenticatedUser currentUser) {
+        List<PostResponse> templates = new ArrayList<>(posts.size());
+        for (Post post : posts) {
+            PostResponse template = buildDTO(post);
+            postCache.put(template);
+            templates.add(template);
+        }
+        return withViewerFlags(templates, currentUser);
+    }
+
+    // Resolves posts in the given order from the cache, loading only the misses in one query;
+    // ids of posts that no longer exist are skipped
+    private List<PostResponse> loadByIds(List<Long> ids, AuthenticatedUser currentUser) {
+        Map<Long, PostResponse> found = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            PostResponse template = postCache.get(id);
+            if (template != null) {
+                found.put(id, template);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Post post : postRepository.findAllByIdWithRoot(misses)) {
+                PostResponse template = buildDTO(post);
+                postCache.put(template);
+                found.put(post.getId(), template);
+            }
+        }
+        List<PostResponse> templates = ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return withViewerFlags(templates, currentUser);
     }
 
-    private PostResponse convertToDTO(Post post, String token) {
+    // Likes come from the liker bitmaps; saves are resolved for the whole page with one grouped query
+    private List<PostResponse> withViewerFlags(List<PostResponse> templates, AuthenticatedUser currentUser) {
+        if (templates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> postIds = templates.stream().map(PostResponse::getId).collect(Collectors.toList());
+        Map<Long, LikerBitmap> likers = likeIndex.forPosts(postIds);
+        Map<Long, List<CommentResponse>> previews = commentPreviewCache.forPosts(postIds);
+
+        Set<Long> likedIds = Collections.emptySet();
+        Set<Long> savedIds = Collections.emptySet();
+        if (currentUser != null) {
+            likedIds = new HashSet<>();
+            for (Long postId : postIds) {
+                if (likers.get(postId).contains(currentUser.getId())) {
+                    likedIds.add(postId);
+                }
+            }
+            if (likeBuffer.isEnabled()) {
+                // Toggles not yet flushed override what the likes table says
+                for (Long postId : postIds) {
+                    Boolean pending = likeBuffer.pendingState(currentUser.getId(), postId);
+                    if (pending != null && pending) {
+                        likedIds.add(postId);
+                    } else if (pending != null) {
+                        likedIds.remove(postId);
+                    }
+                }
+            }
+            savedIds = new HashSet<>(savedPostRepository.findSavedPostIds(currentUser.getId(), postIds));
+        }
+
+        List<PostResponse> dtos = new ArrayList<>(templates.size());
+        for (PostResponse template : templates) {
+            PostResponse dto = template.withViewerFlags(likedIds.contains(template.getId()), savedIds.contains(template.getId()));
+            dto.setLikes(likers.get(template.getId()).cardinality());
+            dto.setRecentComments(previews.get(template.getId()));
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    // Viewer-independent part of the response; flags are left false
+    private PostResponse buildDTO(Post post) {
         PostResponse dto = new PostResponse();
         dto.setId(post.getId());
         dto.setContent(post.getContent());
         if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
             dto.setImageUrl(post.getImageUrl());
+            // Posts uploaded before derivatives existed only have the original files
+            dto.setFeedImageUrl(post.getFeedImageUrl() != null ? post.getFeedImageUrl() : post.getImageUrl());
+            dto.setThumbnailUrl(post.getThumbnailUrl() != null ? post.getThumbnailUrl() : post.getImageUrl());
         }
         dto.setCreatedAt(post.getCreatedAt());
         dto.setUpdatedAt(post.getUpdatedAt());
@@ -83,79 +280,100 @@ public class PostService {
         userSummary.setUsername(post.getUser().getUsername());
         userSummary.setFullName(post.getUser().getFullName());
         userSummary.setProfileImage(post.getUser().getProfileImage());
+        userSummary.setProfileThumbnail(post.getUser().getProfileThumbnail());
         userSummary.setVerified(post.getUser().getVerified());
         dto.setUser(userSummary);
 
-        // Explicitly fetch comment count
-        int commentCount = commentRepository.countByPostId(post.getId());
-        dto.setComments(commentCount);
-
-        // Set like count and isLiked
-        int likeCount = likeRepository.countByPostId(post.getId());
-        dto.setLikes(likeCount);
-
-        boolean isLiked = false;
-        if (token != null) {
-            User currentUser = customUserDetailsService.getUserFromToken(token);
-            isLiked = likeRepository.existsByUserIdAndPostId(currentUser.getId(), post.getId());
-        }
-        dto.setIsLiked(isLiked);
+        dto.setComments(post.getCommentCount());
+        dto.setLikes(post.getLikeCount());
+        dto.setIsLiked(false);
 
         dto.setShareCount(post.getShareCount());
 
-        // --- Add this block to always walk up to the root original post ---
-        Post root = post.getOriginalPost();
-        while (root != null && root.getOriginalPost() != null) {
-            root = root.getOriginalPost();
-        }
-        if (root != null) {
+        Post root = post.getShareRoot();
+        if (root != null && root.getDeletedAt() == null) {
             dto.setOriginalPostId(root.getId());
             PostResponse.UserSummary originalUserSummary = new PostResponse.UserSummary();
             originalUserSummary.setId(root.getUser().getId());
             originalUserSummary.setUsername(root.getUser().getUsername());
             originalUserSummary.setFullName(root.getUser().getFullName());
             originalUserSummary.setProfileImage(root.getUser().getProfileImage());
+            originalUserSummary.setProfileThumbnail(root.getUser().getProfileThumbnail());
             originalUserSummary.setVerified(root.getUser().getVerified());
             dto.setOriginalUser(originalUserSummary);
             dto.setOriginalContent(root.getContent());
             dto.setOriginalImageUrl(root.getImageUrl());
+            dto.setOriginalFeedImageUrl(root.getFeedImageUrl() != null ? root.getFeedImageUrl() : root.getImageUrl());
         }
 
-        boolean isSaved = false;
-        if (token != null) {
-            User currentUser = customUserDetailsService.getUserFromToken(token);
-            isSaved = savedPostRepository.existsByUserIdAndPostId(currentUser.getId(), post.getId());
-        }
-        dto.setSaved(isSaved);
-
         return dto;
     }
 
     @Transactional
-    public boolean toggleLike(Long postId, String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        Post post = postRepository.findById(postId)
+    public boolean toggleLike(Long postId, AuthenticatedUser currentUser) {
+        User user = customUserDetailsService.getReference(currentUser);
+
+        if (likeBuffer.isEnabled()) {
+            // A cached template means the post was live when rendered; otherwise an index-only existence check
+            if (postCache.get(postId) == null && !postRepository.existsByIdAndDeletedAtIsNull(postId)) {
+                throw new RuntimeException("Post not found");
+            }
+            boolean liked = likeBuffer.toggle(user.getId(), postId);
+            afterCommit(() -> onLikeCommitted(postId, user.getId(), liked));
+            return liked;
+        }
+
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
         boolean exists = likeRepository.existsByUserIdAndPostId(user.getId(), postId);
 
         if (exists) {
             likeRepository.deleteByUserIdAndPostId(user.getId(), postId);
-            notificationService.createNotification(user, post.getUser(), post, "LIKE"); // Notify on unlike
+            postRepository.decrementLikeCount(postId);
+            afterCommit(() -> onLikeCommitted(postId, user.getId(), false));
+            notificationService.createNotification(currentUser, post.getUser(), post, "LIKE"); // Notify on unlike
             return false;
         } else {
             Like like = new Like();
             like.setUser(user);
             like.setPost(post);
             likeRepository.save(like);
-            notificationService.createNotification(user, post.getUser(), post, "LIKE");
+            postRepository.incrementLikeCount(postId);
+            afterCommit(() -> onLikeCommitted(postId, user.getId(), true));
+            notificationService.createNotification(currentUser, post.getUser(), post, "LIKE");
             return true;
         }
     }
 
-    public CommentResponse addComment(Long postId, String token, String content, MultipartFile image) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        Post post = postRepository.findById(postId)
+    // In-memory views of likes (bitmaps, cached counts, ranking, trending) follow the database only once it has the change
+    private void onLikeCommitted(Long postId, Long userId, boolean liked) {
+        likeIndex.onLike(postId, userId, liked);
+        postCache.adjustLikes(postId, liked ? 1 : -1);
+        feedRankingService.onLike(postId, liked ? 1 : -1);
+        if (liked) {
+            trendingService.onLike(postId);
+        }
+    }
+
+    // Runs action once the surrounding transaction commits, or right away outside one
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Transactional
+    public CommentResponse addComment(Long postId, AuthenticatedUser currentUser, String content, MultipartFile image) {
+        User user = customUserDetailsService.getReference(currentUser);
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
         Comment comment = new Comment();
@@ -169,140 +387,218 @@ public class PostService {
         }
 
         Comment savedComment = commentRepository.save(comment);
-        notificationService.createNotification(user, post.getUser(), post, "COMMENT");
-        return convertToCommentDTO(savedComment);
+        postRepository.incrementCommentCount(postId);
+        CommentResponse dto = CommentResponse.fromComment(savedComment);
+        postCache.adjustComments(postId, 1);
+        commentPreviewCache.onAdded(postId, dto);
+        feedRankingService.onComment(postId, 1);
+        trendingService.onComment(postId);
+        notificationService.createNotification(currentUser, post.getUser(), post, "COMMENT");
+        return dto;
     }
 
-    public List<CommentResponse> getComments(Long postId) {
-        return commentRepository.findByPostIdOrderByCreatedAtDesc(postId)
-                .stream()
-                .map(this::convertToCommentDTO)
-                .collect(Collectors.toList());
-    }
+    public CommentPageResponse getComments(Long postId, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        Pageable page = PageRequest.of(0, pageSize + 1);
 
-    private CommentResponse convertToCommentDTO(Comment comment) {
-        CommentResponse dto = new CommentResponse();
-        dto.setId(comment.getId());
-        dto.setContent(comment.getContent());
-        dto.setImageUrl(comment.getImageUrl());
-        dto.setCreatedAt(comment.getCreatedAt());
-
-        CommentResponse.UserSummary userSummary = new CommentResponse.UserSummary();
-        userSummary.setId(comment.getUser().getId());
-        userSummary.setUsername(comment.getUser().getUsername());
-        userSummary.setFullName(comment.getUser().getFullName());
-        userSummary.setProfileImage(comment.getUser().getProfileImage());
-        userSummary.setVerified(comment.getUser().getVerified());
-        dto.setUser(userSummary);
+        List<Comment> comments;
+        if (cursor == null || cursor.isEmpty()) {
+            comments = commentRepository.findPageByPostId(postId, page);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            comments = commentRepository.findPageByPostIdBefore(postId, after.getCreatedAt(), after.getId(), page);
+        }
 
-        return dto;
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = comments.subList(0, pageSize);
+            Comment last = comments.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<CommentResponse> dtos = comments.stream()
+                .map(CommentResponse::fromComment)
+                .collect(Collectors.toList());
+        return new CommentPageResponse(dtos, nextCursor);
     }
 
-    public PostResponse updatePost(Long postId, String content, String token, MultipartFile[] images,
+    public PostResponse updatePost(Long postId, String content, AuthenticatedUser currentUser, MultipartFile[] images,
             String keptImages) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        Post post = postRepository.findById(postId)
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        if (!post.getUser().getId().equals(user.getId())) {
+        if (!post.getUser().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You can only update your own posts");
         }
 
         // Allow editing caption for both regular and shared posts
         post.setContent(content);
 
+        // Stored images dropped by this edit; each held one reference
+        List<String> removed = new ArrayList<>();
+
         // For regular posts (not shares), handle images
         if (post.getOriginalPost() == null) { // Check if not a shared post
-            StringBuilder imageUrls = new StringBuilder();
+            List<String> full = new ArrayList<>();
+            List<String> feed = new ArrayList<>();
+            List<String> thumbnails = new ArrayList<>();
+            List<String> currentFull = splitNames(post.getImageUrl());
+            removed.addAll(currentFull);
             if (keptImages != null && !keptImages.isEmpty()) {
-                imageUrls.append(keptImages);
-            }
-            if (images != null && images.length > 0) {
-                for (MultipartFile image : images) {
-                    if (!image.isEmpty()) {
-                        String imageUrl = fileUploadService.saveFile(image);
-                        if (imageUrls.length() > 0) {
-                            imageUrls.append(",");
-                        }
-                        imageUrls.append(imageUrl);
+                List<String> currentFeed = splitNames(post.getFeedImageUrl());
+                List<String> currentThumbnails = splitNames(post.getThumbnailUrl());
+                for (String kept : keptImages.split(",")) {
+                    // Clients may echo back any of the sizes they were shown
+                    int i = currentFull.indexOf(kept);
+                    i = i >= 0 ? i : currentFeed.indexOf(kept);
+                    i = i >= 0 ? i : currentThumbnails.indexOf(kept);
+                    // Each kept image takes over one of the references the post already holds
+                    if (i >= 0 && i < currentFull.size() && removed.remove(currentFull.get(i))) {
+                        full.add(currentFull.get(i));
+                        feed.add(i < currentFeed.size() ? currentFeed.get(i) : currentFull.get(i));
+                        thumbnails.add(i < currentThumbnails.size() ? currentThumbnails.get(i) : currentFull.get(i));
+                    } else if (FileUploadService.hashOf(kept) == null) {
+                        // Legacy file names are accepted as sent; stored media must already be on the post
+                        full.add(kept);
+                        feed.add(kept);
+                        thumbnails.add(kept);
                     }
                 }
             }
-            post.setImageUrl(imageUrls.toString());
+            storeImages(post, full, feed, thumbnails, images);
         }
 
         Post updatedPost = postRepository.save(post);
-        return convertToDTO(updatedPost, token);
+        removed.forEach(fileUploadService::releaseAfterCommit);
+        postCache.invalidate(postId);
+        return convertToDTO(updatedPost, currentUser);
+    }
+
+    // Saves each upload as derivatives and writes the three index-aligned name lists onto the post
+    private void storeImages(Post post, List<String> full, List<String> feed, List<String> thumbnails,
+            MultipartFile[] images) {
+        if (images != null) {
+            List<MultipartFile> uploads = new ArrayList<>();
+            for (MultipartFile image : images) {
+                if (!image.isEmpty()) {
+                    uploads.add(image);
+                }
+            }
+            // Stored concurrently; results come back in upload order
+            for (ImageDerivativeService.Derivatives derivatives : fileUploadService.saveImages(uploads)) {
+                full.add(derivatives.getFull());
+                feed.add(derivatives.getFeed());
+                thumbnails.add(derivatives.getThumbnail());
+            }
+        }
+        post.setImageUrl(String.join(",", full));
+        post.setFeedImageUrl(String.join(",", feed));
+        post.setThumbnailUrl(String.join(",", thumbnails));
     }
 
+    // Appends claimed chunked uploads; each already holds the reference the post takes over
+    private void addUploads(Post post, List<ImageDerivativeService.Derivatives> uploads) {
+        List<String> full = new ArrayList<>(splitNames(post.getImageUrl()));
+        List<String> feed = new ArrayList<>(splitNames(post.getFeedImageUrl()));
+        List<String> thumbnails = new ArrayList<>(splitNames(post.getThumbnailUrl()));
+        for (ImageDerivativeService.Derivatives derivatives : uploads) {
+            full.add(derivatives.getFull());
+            feed.add(derivatives.getFeed());
+            thumbnails.add(derivatives.getThumbnail());
+        }
+        post.setImageUrl(String.join(",", full));
+        post.setFeedImageUrl(String.join(",", feed));
+        post.setThumbnailUrl(String.join(",", thumbnails));
+    }
+
+    private static List<String> splitNames(String names) {
+        return names == null || names.isEmpty() ? new ArrayList<>() : List.of(names.split(","));
+    }
+
+    // Tombstones the post so it disappears from every read path at once; its likes,
+    // comments, notifications and share pointers are removed later by PostPurger
     @Transactional
-    public void deletePost(Long postId, String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        Post post = postRepository.findById(postId)
+    public void deletePost(Long postId, AuthenticatedUser currentUser) {
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        if (!post.getUser().getId().equals(user.getId())) {
+        if (!post.getUser().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You can only delete your own posts");
         }
 
-        postRepository.updateOriginalPostIdToNull(postId);
-
-        // Delete related notifications
-        notificationRepository.deleteByPostId(postId);
+        if (postRepository.markDeleted(postId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Post not found"); // lost a race with another delete
+        }
 
         // If this is a shared post, decrement the shareCount of the original post
-        if (post.getOriginalPost() != null) {
-            Post root = post.getOriginalPost();
-            while (root.getOriginalPost() != null) {
-                root = root.getOriginalPost();
-            }
-            if (root.getShareCount() > 0) {
-                root.setShareCount(root.getShareCount() - 1);
-                postRepository.save(root);
-            }
+        Post root = post.getShareRoot();
+        Long rootId = root != null ? root.getId() : null;
+        if (rootId != null) {
+            shareCounter.add(rootId, -1);
         }
 
-        postRepository.delete(post);
+        // Only once the tombstone is visible, or a racing read could cache the post again
+        afterCommit(() -> onPostDeleteCommitted(postId, rootId));
+    }
+
+    private void onPostDeleteCommitted(Long postId, Long rootId) {
+        if (rootId != null) {
+            postCache.adjustShares(rootId, -1);
+            feedRankingService.onShare(rootId, -1);
+        }
+        postCache.invalidate(postId);
+        likeIndex.invalidate(postId);
+        commentPreviewCache.invalidate(postId);
+        feedRankingService.onPostDeleted(postId);
+        trendingService.onPostDeleted(postId);
     }
 
-    public CommentResponse editComment(Long postId, Long commentId, String token, String content) {
-        User user = customUserDetailsService.getUserFromToken(token);
+    public CommentResponse editComment(Long postId, Long commentId, AuthenticatedUser currentUser, String content) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
-        if (!comment.getUser().getId().equals(user.getId())) {
+        if (!comment.getUser().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You can only edit your own comments");
         }
         comment.setContent(content);
         comment.setUpdatedAt(java.time.LocalDateTime.now());
         Comment updated = commentRepository.save(comment);
-        return convertToCommentDTO(updated);
+        CommentResponse dto = CommentResponse.fromComment(updated);
+        commentPreviewCache.onEdited(updated.getPost().getId(), dto);
+        return dto;
     }
 
-    public void deleteComment(Long postId, Long commentId, String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
+    @Transactional
+    public void deleteComment(Long postId, Long commentId, AuthenticatedUser currentUser) {
         Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
         Post post = comment.getPost();
         // Allow delete if user is post owner or comment owner
-        if (!comment.getUser().getId().equals(user.getId()) && !post.getUser().getId().equals(user.getId())) {
+        if (!comment.getUser().getId().equals(currentUser.getId()) && !post.getUser().getId().equals(currentUser.getId())) {
             throw new RuntimeException("You can only delete your own comment or comments on your post");
         }
         commentRepository.delete(comment);
+        fileUploadService.releaseAfterCommit(comment.getImageUrl());
+        postRepository.decrementCommentCount(post.getId());
+        postCache.adjustComments(post.getId(), -1);
+        commentPreviewCache.onDeleted(post.getId(), commentId);
+        feedRankingService.onComment(post.getId(), -1);
     }
 
-    public void sharePost(Long postId, String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        Post original = postRepository.findById(postId)
+    public void sharePost(Long postId, AuthenticatedUser currentUser) {
+        User user = customUserDetailsService.getReference(currentUser);
+        Post original = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        // Always find the root post
-        Post root = original;
-        while (root.getOriginalPost() != null) {
-            root = root.getOriginalPost();
+        // Always share the root post
+        Post root = original.getShareRoot() != null ? original.getShareRoot() : original;
+        if (root.getDeletedAt() != null) {
+            throw new RuntimeException("Post not found");
         }
 
-        root.setShareCount(root.getShareCount() + 1);
-        postRepository.save(root);
+        shareCounter.add(root.getId(), 1);
+        postCache.adjustShares(root.getId(), 1);
+        feedRankingService.onShare(root.getId(), 1);
+        trendingService.onShare(root.getId());
 
         Post shared = new Post();
         shared.setUser(user);
@@ -310,40 +606,87 @@ public class PostService {
 
         shared.setImageUrl("");
         shared.setOriginalPost(root);
+        shared.setRootPost(root);
 
         postRepository.save(shared);
-        notificationService.createNotification(user, root.getUser(), root, "SHARE");
+        timelineService.fanOut(user.getId(), shared.getId(), shared.getCreatedAt());
+        notificationService.createNotification(currentUser, root.getUser(), root, "SHARE");
 
     }
 
     @Transactional
-    public boolean toggleSave(Long postId, String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        Post post = postRepository.findById(postId)
+    public boolean toggleSave(Long postId, AuthenticatedUser currentUser) {
+        User user = customUserDetailsService.getReference(currentUser);
+        Post post = postRepository.findByIdAndDeletedAtIsNull(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
         boolean exists = savedPostRepository.existsByUserIdAndPostId(user.getId(), postId);
         if (exists) {
-            System.out.println("Deleting SavedPost for userId: " + user.getId() + ", postId: " + postId);
             savedPostRepository.deleteByUserIdAndPostId(user.getId(), postId);
-            System.out.println("Deleted SavedPost successfully");
+            eventLog.event("posts", "unsaved", "user", user.getId(), "post", postId);
             return false;
         } else {
             SavedPost saved = new SavedPost();
             saved.setUser(user);
             saved.setPost(post);
             savedPostRepository.save(saved);
-            System.out.println("Saved post for userId: " + user.getId() + ", postId: " + postId);
+            eventLog.event("posts", "saved", "user", user.getId(), "post", postId);
             return true;
         }
     }
 
-    public List<PostResponse> getSavedPosts(String token) {
-        User user = customUserDetailsService.getUserFromToken(token);
-        List<SavedPost> saved = savedPostRepository.findByUserId(user.getId());
-        return saved.stream()
-                .map(sp -> convertToDTO(sp.getPost(), token))
-                .collect(Collectors.toList());
+    // Posts, authors and share roots come from one fetch; counts and flags are batched per page
+    public PostPageResponse getSavedPosts(AuthenticatedUser currentUser, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        Pageable page = PageRequest.of(0, pageSize + 1);
+
+        List<SavedPost> saved;
+        if (cursor == null || cursor.isEmpty()) {
+            saved = savedPostRepository.findPageByUserId(currentUser.getId(), page);
+        } else {
+            FeedCursor after = FeedCursor.decode(cursor);
+            saved = savedPostRepository.findPageByUserIdBefore(currentUser.getId(), after.getCreatedAt(), after.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (saved.size() > pageSize) {
+            saved = saved.subList(0, pageSize);
+            SavedPost last = saved.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<Post> posts = saved.stream().map(SavedPost::getPost).collect(Collectors.toList());
+        return new PostPageResponse(convertToDTOs(posts, currentUser), nextCursor);
     }
 
-}
\ No newline at end of file
+    // Opaque ranked-feed cursor: the kept ranking and the offset of the next page in it.
+    // Cursors issued before snapshots existed carry only the offset.
+    private static class RankPosition {
+        private final String snapshotId;
+        private final int offset;
+
+        private RankPosition(String snapshotId, int offset) {
+            this.snapshotId = snapshotId;
+            this.offset = offset;
+        }
+
+        private String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(("rank|" + snapshotId + "|" + offset).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private static RankPosition decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                if (!raw.startsWith("rank|")) {
+                    throw new FeedCursor.InvalidCursorException();
+                }
+                int sep = raw.lastIndexOf('|');
+                String snapshotId = sep > 4 ? raw.substring(5, sep) : null;
+                return new RankPosition(snapshotId, Math.max(0, Integer.parseInt(raw.substring(sep + 1))));
+            } catch (IllegalArgumentException e) {
+                throw new FeedCursor.InvalidCursorException();
+            }
+        }
+    }
+}
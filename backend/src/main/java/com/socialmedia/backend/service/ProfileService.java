@@ -4,7 +4,7 @@ import com.socialmedia.backend.dto.ProfileResponse;
 import com.socialmedia.backend.dto.ProfileUpdateRequest;
 import com.socialmedia.backend.model.User;
 import com.socialmedia.backend.repository.UserRepository;
-import com.socialmedia.backend.security.JwtTokenUtil;
+import com.socialmedia.backend.security.AuthenticatedUser;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -13,18 +13,16 @@ import org.springframework.stereotype.Service;
 public class ProfileService {
 
     private final UserRepository userRepository;
-    private final JwtTokenUtil jwtTokenUtil;
+    private final FileUploadService fileUploadService;
+    private final CustomUserDetailsService customUserDetailsService;
 
-    public User getProfile(String token) {
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        return userRepository.findByUsername(username)
+    public User getProfile(AuthenticatedUser currentUser) {
+        return userRepository.findById(currentUser.getId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public User updateProfile(String token, ProfileUpdateRequest request) {
-        String username = jwtTokenUtil.getUsernameFromToken(token);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public User updateProfile(AuthenticatedUser currentUser, ProfileUpdateRequest request) {
+        User user = getProfile(currentUser);
 
         if (request.getFullName() != null)
             user.setFullName(request.getFullName());
@@ -38,22 +36,33 @@ public class ProfileService {
             user.setStudiedAt(request.getStudiedAt());
         if (request.getLocation() != null)
             user.setLocation(request.getLocation());
-        if (request.getProfileImage() != null)
+        String replacedProfileImage = null;
+        String replacedBackgroundImage = null;
+        if (request.getProfileImage() != null) {
+            replacedProfileImage = user.getProfileImage();
             user.setProfileImage(request.getProfileImage());
-        if (request.getBackgroundImage() != null)
+            user.setProfileThumbnail(request.getProfileThumbnail());
+        }
+        if (request.getBackgroundImage() != null) {
+            replacedBackgroundImage = user.getBackgroundImage();
             user.setBackgroundImage(request.getBackgroundImage());
+        }
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        customUserDetailsService.evict(saved); // the principal carries name and avatar
+        // Each stored image holds one reference per field pointing at it
+        fileUploadService.releaseAfterCommit(replacedProfileImage);
+        fileUploadService.releaseAfterCommit(replacedBackgroundImage);
+        return saved;
     }
 
     public ProfileResponse toProfileResponse(User currentUser, User profileUser) {
-        System.out.println("toProfileResponse: currentUser=" + currentUser.getUsername() + ", profileUser="
-                + profileUser.getUsername());
         ProfileResponse dto = new ProfileResponse();
         dto.setId(profileUser.getId());
         dto.setUsername(profileUser.getUsername());
         dto.setFullName(profileUser.getFullName());
         dto.setProfileImage(profileUser.getProfileImage());
+        dto.setProfileThumbnail(profileUser.getProfileThumbnail());
         dto.setEmail(profileUser.getEmail());
         dto.setBackgroundImage(profileUser.getBackgroundImage());
         dto.setBio(profileUser.getBio());
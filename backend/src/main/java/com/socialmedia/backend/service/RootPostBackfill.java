@@ -0,0 +1,36 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets root_post_id on shares created before the column existed, so every share
+ * is rendered from the join-fetched root instead of a lazy originalPost load.
+ * Runs once per startup, walking the id space in small ranges like
+ * PostCounterReconciler; after the first run it finds nothing left to update.
+ */
+@Component
+@RequiredArgsConstructor
+public class RootPostBackfill {
+    private static final Logger log = LoggerFactory.getLogger(RootPostBackfill.class);
+    private static final long BATCH_SIZE = 1000;
+
+    private final PostRepository postRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long maxId = postRepository.findMaxId();
+        int updated = 0;
+        for (long fromId = 1; fromId <= maxId; fromId += BATCH_SIZE) {
+            updated += postRepository.backfillRootPosts(fromId, fromId + BATCH_SIZE - 1);
+        }
+        if (updated > 0) {
+            log.info("Backfilled root_post_id on {} legacy shares", updated);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies share_count changes to root posts. By default every change is a
+ * single atomic UPDATE. With posts.share-counter.buffered=true, changes are
+ * summed in per-post LongAdders and written periodically as one UPDATE per
+ * post, so thousands of concurrent shares of a hot post cost one row write.
+ * Adds and the removal of idle adders both go through compute, so a share can
+ * never land on an adder the flush has already dropped.
+ */
+@Component
+public class ShareCounter {
+    private static final Logger log = LoggerFactory.getLogger(ShareCounter.class);
+
+    private final PostRepository postRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean buffered;
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    public ShareCounter(PostRepository postRepository, JdbcTemplate jdbcTemplate,
+            @Value("${posts.share-counter.buffered:false}") boolean buffered) {
+        this.postRepository = postRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffered = buffered;
+    }
+
+    public void add(Long postId, long delta) {
+        if (buffered) {
+            // Added under the entry's lock so flush can never drop the adder mid-add
+            pending.compute(postId, (id, adder) -> {
+                LongAdder target = adder != null ? adder : new LongAdder();
+                target.add(delta);
+                return target;
+            });
+        } else {
+            postRepository.adjustShareCount(postId, delta);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${posts.share-counter.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> postIds = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            // Subtract exactly what was read: adds racing with the flush stay in the
+            // adder for the next round instead of being lost as with sumThenReset
+            long delta = entry.getValue().sum();
+            if (delta != 0) {
+                entry.getValue().add(-delta);
+                postIds.add(entry.getKey());
+                batch.add(new Object[] { delta, entry.getKey() });
+            } else {
+                // Idle since the last flush; dropped only if no add slipped in meanwhile
+                pending.compute(entry.getKey(), (id, adder) -> adder == null || adder.sum() == 0 ? null : adder);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE posts SET share_count = GREATEST(share_count + ?, 0) WHERE id = ?", batch);
+        } catch (RuntimeException e) {
+            log.error("Share count flush failed for {} posts, re-queueing", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                add(postIds.get(i), (Long) batch.get(i)[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,87 @@
+package com.socialmedia.backend.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fixed-capacity ring of (createdAt millis, post id) entries held in primitive
+ * arrays, ordered oldest to newest. Once full, each push drops the oldest entry.
+ */
+public class TimelineBuffer {
+    private final long[] timestamps;
+    private final long[] postIds;
+    private int start; // physical slot of the oldest entry
+    private int size;
+
+    public TimelineBuffer(int capacity) {
+        this.timestamps = new long[capacity];
+        this.postIds = new long[capacity];
+    }
+
+    public synchronized void push(long timestamp, long postId) {
+        // Fan-out runs on several threads, so entries can arrive slightly out of
+        // order; find the insertion point scanning back from the newest entry.
+        int i = size;
+        while (i > 0 && compare(timestamp, postId, i - 1) < 0) {
+            i--;
+        }
+        if (i > 0 && compare(timestamp, postId, i - 1) == 0) {
+            return; // already present
+        }
+        if (size == postIds.length) {
+            if (i == 0) {
+                return; // older than everything we keep
+            }
+            start = (start + 1) % postIds.length;
+            size--;
+            i--;
+        }
+        for (int j = size; j > i; j--) {
+            timestamps[slot(j)] = timestamps[slot(j - 1)];
+            postIds[slot(j)] = postIds[slot(j - 1)];
+        }
+        timestamps[slot(i)] = timestamp;
+        postIds[slot(i)] = postId;
+        size++;
+    }
+
+    /**
+     * Newest-first entries strictly older than (beforeTimestamp, beforeId), up to limit.
+     * Pass Long.MAX_VALUE for both to read from the newest entry.
+     */
+    public synchronized Slice readBefore(long beforeTimestamp, long beforeId, int limit) {
+        long[] outTimestamps = new long[Math.min(limit, size)];
+        long[] outIds = new long[outTimestamps.length];
+        int count = 0;
+        for (int i = size - 1; i >= 0 && count < outIds.length; i--) {
+            if (compare(beforeTimestamp, beforeId, i) > 0) {
+                outTimestamps[count] = timestamps[slot(i)];
+                outIds[count] = postIds[slot(i)];
+                count++;
+            }
+        }
+        return new Slice(outTimestamps, outIds, count);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int slot(int logicalIndex) {
+        return (start + logicalIndex) % postIds.length;
+    }
+
+    private int compare(long timestamp, long postId, int logicalIndex) {
+        int s = slot(logicalIndex);
+        int byTime = Long.compare(timestamp, timestamps[s]);
+        return byTime != 0 ? byTime : Long.compare(postId, postIds[s]);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Slice {
+        private final long[] timestamps;
+        private final long[] postIds;
+        private final int size;
+    }
+}
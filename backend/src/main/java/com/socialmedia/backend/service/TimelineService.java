@@ -0,0 +1,251 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.cache.BoundedCache;
+import com.socialmedia.backend.dto.FeedCursor;
+import com.socialmedia.backend.repository.PostRepository;
+import com.socialmedia.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Per-user home timelines built by fan-out-on-write. Only recently read
+ * timelines are kept, in a segmented LRU cache bounded by timeline.max-users;
+ * the rest are rebuilt from the database on first read, so a push to an absent
+ * timeline can simply be skipped.
+ *
+ * Authors with more followers than timeline.celebrity-threshold are not pushed;
+ * their recent posts are kept in a per-author buffer and merged into each
+ * follower's timeline at read time. Crossings are noticed on the author's next
+ * post or follower change; an upward one makes cached timelines re-read their
+ * pull list on their next read. Authors are never dropped from a cached pull
+ * list: the posts they made while pulled are not in the pushed buffer, so
+ * dropping them would hide those posts until the timeline is rebuilt.
+ */
+@Service
+public class TimelineService {
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final BoundedCache<Long, HomeTimeline> timelines;
+    private final Map<Long, TimelineBuffer> authorPosts = new ConcurrentHashMap<>();
+    // Authors last seen above the threshold; each upward crossing bumps the version
+    private final Set<Long> celebrities = ConcurrentHashMap.newKeySet();
+    private final AtomicLong celebrityVersion = new AtomicLong();
+    private final int capacity;
+    private final long celebrityThreshold;
+    private final int authorCapacity;
+
+    public TimelineService(PostRepository postRepository, UserRepository userRepository,
+            @Value("${timeline.capacity:500}") int capacity,
+            @Value("${timeline.max-users:100000}") int maxUsers,
+            @Value("${timeline.ttl-minutes:60}") long ttlMinutes,
+            @Value("${timeline.celebrity-threshold:10000}") long celebrityThreshold,
+            @Value("${timeline.author-capacity:200}") int authorCapacity) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.timelines = new BoundedCache<>(maxUsers, Duration.ofMinutes(ttlMinutes));
+        this.capacity = capacity;
+        this.celebrityThreshold = celebrityThreshold;
+        this.authorCapacity = authorCapacity;
+    }
+
+    @Async("timelineExecutor")
+    public void fanOut(Long authorId, Long postId, LocalDateTime createdAt) {
+        long timestamp = toMillis(createdAt);
+        push(authorId, timestamp, postId);
+        if (updateCelebrity(authorId, userRepository.countFollowers(authorId))) {
+            authorPosts.computeIfPresent(authorId, (id, buffer) -> {
+                buffer.push(timestamp, postId);
+                return buffer;
+            });
+            return;
+        }
+        for (Long followerId : userRepository.findFollowerIds(authorId)) {
+            push(followerId, timestamp, postId);
+        }
+    }
+
+    public TimelineBuffer.Slice read(Long userId, FeedCursor after, int limit) {
+        long beforeTimestamp = after != null ? toMillis(after.getCreatedAt()) : Long.MAX_VALUE;
+        long beforeId = after != null ? after.getId() : Long.MAX_VALUE;
+        HomeTimeline timeline = timelineFor(userId);
+        if (timeline.celebrityVersion != celebrityVersion.get()) {
+            refreshCelebrities(userId, timeline);
+        }
+
+        TimelineBuffer.Slice pushed = timeline.pushed.readBefore(beforeTimestamp, beforeId, limit);
+        if (timeline.celebrityIds.length == 0) {
+            return pushed;
+        }
+        List<TimelineBuffer.Slice> sources = new ArrayList<>();
+        sources.add(pushed);
+        for (long authorId : timeline.celebrityIds) {
+            sources.add(authorBufferFor(authorId).readBefore(beforeTimestamp, beforeId, limit));
+        }
+        return merge(sources, limit);
+    }
+
+    // Called when the follow graph changes so the timeline is rebuilt on next read
+    public void evict(Long userId) {
+        timelines.invalidate(userId);
+    }
+
+    // Called after authorId gains or loses a follower, so crossings between posts are seen too
+    public void onFollowersChanged(Long authorId) {
+        updateCelebrity(authorId, userRepository.countFollowers(authorId));
+    }
+
+    private boolean updateCelebrity(Long authorId, long followers) {
+        if (followers <= celebrityThreshold) {
+            celebrities.remove(authorId);
+            return false;
+        }
+        if (celebrities.add(authorId)) {
+            celebrityVersion.incrementAndGet();
+        }
+        return true;
+    }
+
+    private void push(Long userId, long timestamp, long postId) {
+        // A timeline still loading already accepts pushes; the buffer drops duplicates
+        timelines.update(userId, timeline -> {
+            timeline.pushed.push(timestamp, postId);
+            return timeline;
+        });
+    }
+
+    // K-way merge of newest-first slices by (createdAt, id); a post present in
+    // several sources (e.g. pushed before its author crossed the threshold) is emitted once
+    private TimelineBuffer.Slice merge(List<TimelineBuffer.Slice> sources, int limit) {
+        int[] positions = new int[sources.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>((a, b) -> {
+            TimelineBuffer.Slice sa = sources.get(a);
+            TimelineBuffer.Slice sb = sources.get(b);
+            int byTime = Long.compare(sb.getTimestamps()[positions[b]], sa.getTimestamps()[positions[a]]);
+            return byTime != 0 ? byTime : Long.compare(sb.getPostIds()[positions[b]], sa.getPostIds()[positions[a]]);
+        });
+        for (int i = 0; i < sources.size(); i++) {
+            if (sources.get(i).getSize() > 0) {
+                heads.add(i);
+            }
+        }
+
+        long[] timestamps = new long[limit];
+        long[] postIds = new long[limit];
+        int count = 0;
+        while (count < limit && !heads.isEmpty()) {
+            int source = heads.poll();
+            TimelineBuffer.Slice slice = sources.get(source);
+            long postId = slice.getPostIds()[positions[source]];
+            if (count == 0 || postIds[count - 1] != postId) {
+                timestamps[count] = slice.getTimestamps()[positions[source]];
+                postIds[count] = postId;
+                count++;
+            }
+            if (++positions[source] < slice.getSize()) {
+                heads.add(source);
+            }
+        }
+        return new TimelineBuffer.Slice(timestamps, postIds, count);
+    }
+
+    private TimelineBuffer authorBufferFor(long authorId) {
+        return authorPosts.computeIfAbsent(authorId, id -> {
+            TimelineBuffer buffer = new TimelineBuffer(authorCapacity);
+            for (Object[] row : postRepository.findRecentEntriesByAuthor(id, PageRequest.of(0, authorCapacity))) {
+                buffer.push(toMillis((LocalDateTime) row[1]), (Long) row[0]);
+            }
+            return buffer;
+        });
+    }
+
+    /*
+     * An empty timeline is cached before it is loaded, so fan-out pushes that
+     * arrive while the database query runs land in it instead of being skipped.
+     * The loading thread fills it outside any cache lock; other readers of the
+     * same timeline wait for that load rather than running their own.
+     */
+    private HomeTimeline timelineFor(Long userId) {
+        HomeTimeline timeline = timelines.get(userId);
+        if (timeline == null) {
+            HomeTimeline created = new HomeTimeline(new TimelineBuffer(capacity));
+            timeline = timelines.putIfAbsent(userId, created);
+            if (timeline == null) {
+                load(userId, created);
+                return created;
+            }
+        }
+        timeline.loaded.join();
+        return timeline;
+    }
+
+    private void load(Long userId, HomeTimeline timeline) {
+        try {
+            timeline.celebrityVersion = celebrityVersion.get();
+            List<Object[]> rows = postRepository.findTimelineEntries(userId, PageRequest.of(0, capacity));
+            for (Object[] row : rows) {
+                timeline.pushed.push(toMillis((LocalDateTime) row[1]), (Long) row[0]);
+            }
+            timeline.celebrityIds = findCelebrityIds(userId).toArray();
+            timeline.loaded.complete(null);
+        } catch (RuntimeException e) {
+            timelines.invalidate(userId);
+            timeline.loaded.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Adds authors that crossed the threshold since the timeline last looked; see the class comment
+    private void refreshCelebrities(Long userId, HomeTimeline timeline) {
+        synchronized (timeline) {
+            long version = celebrityVersion.get();
+            if (timeline.celebrityVersion == version) {
+                return;
+            }
+            timeline.celebrityIds = LongStream.concat(LongStream.of(timeline.celebrityIds), findCelebrityIds(userId))
+                    .distinct()
+                    .toArray();
+            timeline.celebrityVersion = version;
+        }
+    }
+
+    private LongStream findCelebrityIds(Long userId) {
+        return userRepository.findFollowedIdsWithFollowersAbove(userId, celebrityThreshold)
+                .stream()
+                .mapToLong(Long::longValue);
+    }
+
+    public static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static class HomeTimeline {
+        private final TimelineBuffer pushed;
+        private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        private volatile long[] celebrityIds = new long[0]; // followed authors whose posts are pulled at read time
+        private volatile long celebrityVersion; // TimelineService.celebrityVersion the list was last checked against
+
+        private HomeTimeline(TimelineBuffer pushed) {
+            this.pushed = pushed;
+        }
+    }
+}
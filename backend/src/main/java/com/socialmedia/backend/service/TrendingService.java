@@ -0,0 +1,171 @@
+package com.socialmedia.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Trending posts over a sliding window of per-minute count-min sketch buckets.
+ * Engagement events are added to the current minute's sketch, and a bounded
+ * heavy-hitters map keeps the posts with the highest window estimates. Memory
+ * is fixed by the window, sketch shape and heavy-hitter capacity, and reads
+ * never touch the database. Tracked estimates are recomputed whenever the
+ * window slides, so posts whose buckets expired fall out and make room.
+ */
+@Service
+public class TrendingService {
+    private static final int LIKE_WEIGHT = 1;
+    private static final int COMMENT_WEIGHT = 2;
+    private static final int SHARE_WEIGHT = 3;
+
+    private final int windowMinutes;
+    private final int capacity;
+    private final CountMinSketch[] buckets;
+    private final AtomicLongArray bucketMinutes; // epoch minute each bucket currently holds
+    private final Map<Long, Long> heavyHitters = new HashMap<>(); // post id -> live window estimate
+    private final LongSupplier clock;
+    private long refreshedMinute = -1; // guarded by heavyHitters
+
+    @Autowired
+    public TrendingService(@Value("${trending.window-minutes:60}") int windowMinutes,
+            @Value("${trending.sketch-depth:4}") int depth,
+            @Value("${trending.sketch-width:2048}") int width,
+            @Value("${trending.capacity:200}") int capacity) {
+        this(windowMinutes, depth, width, capacity, System::currentTimeMillis);
+    }
+
+    TrendingService(int windowMinutes, int depth, int width, int capacity, LongSupplier clock) {
+        this.clock = clock;
+        this.windowMinutes = windowMinutes;
+        this.capacity = capacity;
+        this.buckets = new CountMinSketch[windowMinutes];
+        this.bucketMinutes = new AtomicLongArray(windowMinutes);
+        for (int i = 0; i < windowMinutes; i++) {
+            buckets[i] = new CountMinSketch(depth, width);
+            bucketMinutes.set(i, -1);
+        }
+    }
+
+    public void onLike(Long postId) {
+        record(postId, LIKE_WEIGHT);
+    }
+
+    public void onComment(Long postId) {
+        record(postId, COMMENT_WEIGHT);
+    }
+
+    public void onShare(Long postId) {
+        record(postId, SHARE_WEIGHT);
+    }
+
+    // Ids of the highest-scoring posts in the current window, best first
+    public List<Long> topPosts(int limit) {
+        CountMinSketch[] live = liveBuckets(currentMinute());
+        List<long[]> scored = new ArrayList<>();
+        synchronized (heavyHitters) {
+            for (Long postId : heavyHitters.keySet()) {
+                long estimate = live.length == 0 ? 0 : CountMinSketch.estimate(live, postId);
+                if (estimate > 0) {
+                    scored.add(new long[] { postId, estimate });
+                }
+            }
+        }
+        scored.sort((a, b) -> Long.compare(b[1], a[1]));
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            ids.add(scored.get(i)[0]);
+        }
+        return ids;
+    }
+
+    public void onPostDeleted(Long postId) {
+        synchronized (heavyHitters) {
+            heavyHitters.remove(postId);
+        }
+    }
+
+    private void record(Long postId, int weight) {
+        long minute = currentMinute();
+        bucketFor(minute).add(postId, weight);
+        long estimate = CountMinSketch.estimate(liveBuckets(minute), postId);
+
+        synchronized (heavyHitters) {
+            if (minute != refreshedMinute) {
+                refresh(minute);
+            }
+            if (heavyHitters.containsKey(postId) || heavyHitters.size() < capacity) {
+                heavyHitters.put(postId, estimate);
+                return;
+            }
+            // Replace the weakest tracked post if this one now beats it
+            Map.Entry<Long, Long> weakest = null;
+            for (Map.Entry<Long, Long> entry : heavyHitters.entrySet()) {
+                if (weakest == null || entry.getValue() < weakest.getValue()) {
+                    weakest = entry;
+                }
+            }
+            if (weakest != null && estimate > weakest.getValue()) {
+                heavyHitters.remove(weakest.getKey());
+                heavyHitters.put(postId, estimate);
+            }
+        }
+    }
+
+    /*
+     * Re-estimates every tracked post against the buckets still in the window and
+     * drops those that no longer have any engagement in it. Stored estimates only
+     * fall when a bucket leaves the window, which happens at most once per minute,
+     * so between refreshes they match the live ones. Caller holds heavyHitters.
+     */
+    private void refresh(long minute) {
+        CountMinSketch[] live = liveBuckets(minute);
+        Iterator<Map.Entry<Long, Long>> it = heavyHitters.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Long> entry = it.next();
+            long estimate = live.length == 0 ? 0 : CountMinSketch.estimate(live, entry.getKey());
+            if (estimate > 0) {
+                entry.setValue(estimate);
+            } else {
+                it.remove();
+            }
+        }
+        refreshedMinute = minute;
+    }
+
+    private CountMinSketch bucketFor(long minute) {
+        int slot = (int) (minute % windowMinutes);
+        if (bucketMinutes.get(slot) != minute) {
+            synchronized (buckets[slot]) {
+                if (bucketMinutes.get(slot) != minute) {
+                    buckets[slot].clear();
+                    bucketMinutes.set(slot, minute);
+                }
+            }
+        }
+        return buckets[slot];
+    }
+
+    // Buckets whose minute is still inside the window; slots not written recently hold stale data
+    private CountMinSketch[] liveBuckets(long minute) {
+        List<CountMinSketch> live = new ArrayList<>(windowMinutes);
+        for (int i = 0; i < windowMinutes; i++) {
+            if (minute - bucketMinutes.get(i) < windowMinutes) {
+                live.add(buckets[i]);
+            }
+        }
+        return live.toArray(new CountMinSketch[0]);
+    }
+
+    private long currentMinute() {
+        return clock.getAsLong() / 60_000;
+    }
+}
@@ -0,0 +1,140 @@
+package com.socialmedia.backend.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MediaControllerTest {
+    private static final String BODY = "0123456789";
+
+    private final MediaController controller = new MediaController();
+    private Path file;
+    private String name;
+
+    @BeforeEach
+    void createUpload() throws Exception {
+        name = UUID.randomUUID() + ".txt";
+        Files.createDirectories(Paths.get("uploads"));
+        file = Files.writeString(Paths.get("uploads", name), BODY);
+    }
+
+    @AfterEach
+    void deleteUpload() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void servesTheWholeFileWithCachingHeaders() throws Exception {
+        MockHttpServletResponse response = serve(request(name));
+
+        assertEquals(200, response.getStatus());
+        assertEquals(BODY, body(response));
+        assertEquals("\"" + name + "\"", response.getHeader("ETag"));
+        assertEquals("public, max-age=31536000, immutable", response.getHeader("Cache-Control"));
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+    }
+
+    @Test
+    void answersAMatchingConditionalGetWithNotModified() throws Exception {
+        MockHttpServletRequest request = request(name);
+        request.addHeader("If-None-Match", "\"other\", W/\"" + name + "\"");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        assertRange("bytes=2-5", "2345", "bytes 2-5/10");
+        assertRange("bytes=7-", "789", "bytes 7-9/10");
+        assertRange("bytes=-3", "789", "bytes 7-9/10");
+        assertRange("bytes=8-100", "89", "bytes 8-9/10");
+    }
+
+    @Test
+    void rejectsRangesPastTheEnd() throws Exception {
+        MockHttpServletRequest request = request(name);
+        request.addHeader("Range", "bytes=10-");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader("Content-Range"));
+    }
+
+    @Test
+    void ignoresInvalidMultipleOrStaleRanges() throws Exception {
+        for (String range : new String[] { "bytes=5-2", "bytes=0-1,4-5", "items=0-1", "bytes=a-b" }) {
+            MockHttpServletRequest request = request(name);
+            request.addHeader("Range", range);
+            MockHttpServletResponse response = serve(request);
+            assertEquals(200, response.getStatus(), range);
+            assertEquals(BODY, body(response), range);
+        }
+
+        MockHttpServletRequest stale = request(name);
+        stale.addHeader("Range", "bytes=0-1");
+        stale.addHeader("If-Range", "\"some-older-file\"");
+        assertEquals(BODY, body(serve(stale)));
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = request(name);
+        request.setMethod("HEAD");
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void refusesPathsOutsideTheUploadRoot() throws Exception {
+        assertEquals(404, serve(request("../pom.xml")).getStatus());
+        assertEquals(404, serve(request("missing.txt")).getStatus());
+    }
+
+    private void assertRange(String range, String expectedBody, String expectedContentRange) throws Exception {
+        MockHttpServletRequest request = request(name);
+        request.addHeader("Range", range);
+
+        MockHttpServletResponse response = serve(request);
+
+        assertEquals(206, response.getStatus(), range);
+        assertEquals(expectedBody, body(response), range);
+        assertEquals(expectedContentRange, response.getHeader("Content-Range"), range);
+        assertEquals(expectedBody.length(), response.getContentLengthLong(), range);
+    }
+
+    private MockHttpServletResponse serve(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/uploads/" + path);
+        request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/uploads/" + path);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/uploads/**");
+        return request;
+    }
+
+    private static String body(MockHttpServletResponse response) {
+        return new String(response.getContentAsByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package com.socialmedia.backend.controller;
+
+import com.socialmedia.backend.dto.FeedCursor;
+import com.socialmedia.backend.service.PostService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PostControllerTest {
+    private final PostService postService = mock(PostService.class);
+    private final PostController controller = new PostController(postService);
+
+    @Test
+    void invalidCursorIsABadRequest() {
+        when(postService.getFeed(eq("garbage"), any(), any())).thenThrow(new FeedCursor.InvalidCursorException());
+
+        assertEquals(400, controller.getAllPosts("garbage", null, null, null).getStatusCode().value());
+    }
+
+    @Test
+    void serverFailuresAreNotReportedAsBadRequests() {
+        // Left to propagate so Spring answers 500 and logs the stack trace
+        when(postService.getFeed(any(), any(), any())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> controller.getAllPosts(null, null, null, null));
+    }
+
+    @Test
+    void commentsAnswer400OnlyForAnInvalidCursor() {
+        when(postService.getComments(eq(1L), eq("garbage"), any())).thenThrow(new FeedCursor.InvalidCursorException());
+        when(postService.getComments(eq(1L), eq(null), any())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertEquals(400, controller.getComments(1L, "garbage", null).getStatusCode().value());
+        assertThrows(DataAccessResourceFailureException.class, () -> controller.getComments(1L, null, null));
+    }
+
+    @Test
+    void timelineAnswers400OnlyForAnInvalidCursor() {
+        when(postService.getTimeline(any(), eq("garbage"), any())).thenThrow(new FeedCursor.InvalidCursorException());
+        when(postService.getTimeline(any(), eq(null), any())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertEquals(400, controller.getTimeline(null, "garbage", null).getStatusCode().value());
+        assertThrows(DataAccessResourceFailureException.class, () -> controller.getTimeline(null, null, null));
+    }
+
+    @Test
+    void savedPostsAnswer400OnlyForAnInvalidCursor() {
+        when(postService.getSavedPosts(any(), eq("garbage"), any())).thenThrow(new FeedCursor.InvalidCursorException());
+        when(postService.getSavedPosts(any(), eq(null), any())).thenThrow(new DataAccessResourceFailureException("db down"));
+
+        assertEquals(400, controller.getSavedPosts(null, "garbage", null).getStatusCode().value());
+        assertThrows(DataAccessResourceFailureException.class, () -> controller.getSavedPosts(null, null, null));
+    }
+}
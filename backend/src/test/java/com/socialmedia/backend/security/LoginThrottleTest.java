@@ -0,0 +1,54 @@
+package com.socialmedia.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginThrottleTest {
+
+    @Test
+    void accountBucketThrottlesAcrossAddresses() {
+        LoginThrottle throttle = new LoginThrottle(100, 100, 2, 1, 1000);
+        throttle.check("10.0.0.1", "Alice");
+        throttle.check("10.0.0.2", "alice");
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> throttle.check("10.0.0.3", "ALICE"));
+        assertEquals(429, e.getStatusCode().value());
+        assertEquals(1, throttle.throttledCount());
+    }
+
+    @Test
+    void bucketsDoNotResetWhileInUse() throws Exception {
+        // 5 tokens refilling at 5/s: a bucket is full again one second after it was last drained
+        LoginThrottle throttle = new LoginThrottle(5, 300, 100, 100, 1000);
+        long start = System.nanoTime();
+        int admitted = drain(throttle);
+
+        // Keep the bucket busy across the point where an entry created at start would expire
+        Thread.sleep(800);
+        admitted += drain(throttle);
+        Thread.sleep(400);
+        admitted += drain(throttle);
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        assertTrue(admitted <= 5 + elapsedSeconds * 5,
+                admitted + " attempts admitted in " + elapsedSeconds + "s");
+    }
+
+    private static int drain(LoginThrottle throttle) {
+        int admitted = 0;
+        try {
+            while (admitted < 10) {
+                throttle.check("10.0.0.1", null);
+                admitted++;
+            }
+        } catch (ResponseStatusException e) {
+            // bucket empty
+        }
+        return admitted;
+    }
+}
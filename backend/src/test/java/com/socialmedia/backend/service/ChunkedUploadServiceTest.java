@@ -0,0 +1,212 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.dto.UploadSessionResponse;
+import com.socialmedia.backend.model.User;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkedUploadServiceTest {
+    private static final int CHUNK = 4;
+    private static final byte[] DATA = "0123456789".getBytes(StandardCharsets.UTF_8); // chunks 0123 4567 89
+
+    private final FileUploadService fileUploadService = mock(FileUploadService.class);
+    private final AuthenticatedUser alice = user(1L, "alice");
+    private final AuthenticatedUser bob = user(2L, "bob");
+    private final List<byte[]> storedContents = new ArrayList<>();
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new ChunkedUploadService(fileUploadService, CHUNK, 1024, 10, 60);
+        // Stands in for FileUploadService: keeps what was assembled and consumes the staging file
+        when(fileUploadService.saveStagedImage(any(), anyString(), anyLong(), any())).thenAnswer(invocation -> {
+            Path staged = invocation.getArgument(0);
+            storedContents.add(Files.readAllBytes(staged));
+            Files.delete(staged);
+            String name = UUID.randomUUID() + ".jpg";
+            return new ImageDerivativeService.Derivatives("t-" + name, "f-" + name, name);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Anything left is older than a zero TTL once sessions are gone
+        new ChunkedUploadService(fileUploadService, CHUNK, 1024, 10, 0).expire();
+    }
+
+    @Test
+    void assemblesChunksSentOutOfOrderAndInParallel() throws Exception {
+        UploadSessionResponse session = service.init(alice, "a.jpg", (long) DATA.length, sha256(DATA));
+        assertEquals(3, session.getChunkCount());
+        assertEquals(List.of(0, 1, 2), session.getMissingChunks());
+
+        write(session, 2);
+        assertEquals(List.of(0, 1), service.status(alice, session.getUploadId()).getMissingChunks());
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int index : new int[] { 1, 0 }) {
+            writes.add(pool.submit(() -> {
+                start.await();
+                write(session, index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> write : writes) {
+            write.get(10, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        UploadSessionResponse completed = service.complete(alice, session.getUploadId(), null);
+
+        assertEquals("COMPLETED", completed.getStatus());
+        assertArrayEquals(DATA, storedContents.get(0));
+    }
+
+    @Test
+    void rejectsShortAndLongChunksAndKeepsThemMissing() {
+        UploadSessionResponse session = service.init(alice, "a.jpg", (long) DATA.length, sha256(DATA));
+        String id = session.getUploadId();
+
+        assertThrows(RuntimeException.class, () -> service.writeChunk(alice, id, 0, body("012")));
+        assertThrows(RuntimeException.class, () -> service.writeChunk(alice, id, 0, body("01234")));
+        assertThrows(RuntimeException.class, () -> service.writeChunk(alice, id, 2, body("8")));
+        assertThrows(RuntimeException.class, () -> service.writeChunk(alice, id, 3, body("")));
+        assertEquals(List.of(0, 1, 2), service.status(alice, id).getMissingChunks());
+
+        // A failed re-send of a chunk that had arrived marks it missing again
+        write(session, 0);
+        assertThrows(RuntimeException.class, () -> service.writeChunk(alice, id, 0, body("01")));
+        assertEquals(List.of(0, 1, 2), service.status(alice, id).getMissingChunks());
+
+        assertThrows(RuntimeException.class, () -> service.complete(alice, id, null));
+    }
+
+    @Test
+    void checksumMismatchMarksEveryChunkMissingAndAResendCompletes() {
+        UploadSessionResponse session = service.init(alice, "a.jpg", (long) DATA.length, sha256(DATA));
+        String id = session.getUploadId();
+        service.writeChunk(alice, id, 0, body("0123"));
+        service.writeChunk(alice, id, 1, body("4XX7")); // corrupted in transit
+        service.writeChunk(alice, id, 2, body("89"));
+
+        RuntimeException mismatch = assertThrows(RuntimeException.class, () -> service.complete(alice, id, null));
+        assertEquals("Checksum mismatch", mismatch.getMessage());
+        assertEquals(List.of(0, 1, 2), service.status(alice, id).getMissingChunks());
+        verify(fileUploadService, never()).saveStagedImage(any(), anyString(), anyLong(), any());
+
+        for (int i = 0; i < 3; i++) {
+            write(session, i);
+        }
+        assertEquals("COMPLETED", service.complete(alice, id, null).getStatus());
+        assertArrayEquals(DATA, storedContents.get(0));
+    }
+
+    @Test
+    void claimIsAllOrNothingAndOwnerOnly() {
+        String first = completedUpload(alice);
+        String second = completedUpload(alice);
+        String incomplete = service.init(alice, "c.jpg", (long) DATA.length, sha256(DATA)).getUploadId();
+        String foreign = completedUpload(bob);
+
+        assertThrows(RuntimeException.class, () -> service.claim(alice, List.of(first, incomplete)));
+        assertThrows(RuntimeException.class, () -> service.claim(alice, List.of(first, foreign)));
+        assertThrows(RuntimeException.class, () -> service.claim(alice, List.of(second, first, "no-such-upload")));
+
+        // Nothing was taken by the failed attempts, so the same uploads can still be claimed, in order
+        assertEquals(2, service.claim(alice, List.of(second, first)).size());
+        assertEquals(1, service.claim(bob, List.of(foreign)).size());
+        assertThrows(RuntimeException.class, () -> service.claim(alice, List.of(first)));
+        verify(fileUploadService, never()).release(anyString());
+    }
+
+    @Test
+    void sweepDeletesStagingFilesNoSessionOwns() throws Exception {
+        Path orphan = Paths.get("upload-staging", "chunked", UUID.randomUUID() + ".part");
+        Files.write(orphan, new byte[16]);
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+        Path fresh = Paths.get("upload-staging", "chunked", UUID.randomUUID() + ".part");
+        Files.write(fresh, new byte[16]);
+        String live = service.init(alice, "a.jpg", (long) DATA.length, sha256(DATA)).getUploadId();
+        Path liveFile = Paths.get("upload-staging", "chunked", live + ".part");
+        Files.setLastModifiedTime(liveFile, FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+
+        service.expire();
+
+        assertFalse(Files.exists(orphan));
+        assertTrue(Files.exists(fresh)); // may belong to a session still being created
+        assertTrue(Files.exists(liveFile)); // its session was touched within the TTL
+        Files.delete(fresh);
+    }
+
+    private String completedUpload(AuthenticatedUser owner) {
+        UploadSessionResponse session = service.init(owner, "a.jpg", (long) DATA.length, sha256(DATA));
+        for (int i = 0; i < session.getChunkCount(); i++) {
+            service.writeChunk(owner, session.getUploadId(), i, chunk(i));
+        }
+        service.complete(owner, session.getUploadId(), null);
+        return session.getUploadId();
+    }
+
+    private void write(UploadSessionResponse session, int index) {
+        service.writeChunk(alice, session.getUploadId(), index, chunk(index));
+    }
+
+    private static ByteArrayInputStream chunk(int index) {
+        int from = index * CHUNK;
+        return new ByteArrayInputStream(Arrays.copyOfRange(DATA, from, Math.min(DATA.length, from + CHUNK)));
+    }
+
+    private static ByteArrayInputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static AuthenticatedUser user(Long id, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        return new AuthenticatedUser(user);
+    }
+}
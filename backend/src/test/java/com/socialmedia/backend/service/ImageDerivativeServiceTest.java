@@ -0,0 +1,100 @@
+package com.socialmedia.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageDerivativeServiceTest {
+    private final ImageDerivativeService service = new ImageDerivativeService(Runnable::run, 16, 32, 64, 0.9f,
+            1_000_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void uprightPhotosKeepTheirShape() throws IOException {
+        BufferedImage derived = renderThumbnail(0);
+
+        assertEquals(16, derived.getWidth());
+        assertEquals(8, derived.getHeight());
+        assertTrue(isRed(derived.getRGB(2, 4)));
+        assertTrue(isBlue(derived.getRGB(13, 4)));
+    }
+
+    @Test
+    void rotatedPhotosAreTurnedUpright() throws IOException {
+        // Orientation 6: stored sideways, displayed after a 90 degree clockwise turn
+        BufferedImage derived = renderThumbnail(6);
+
+        assertEquals(8, derived.getWidth());
+        assertEquals(16, derived.getHeight());
+        assertTrue(isRed(derived.getRGB(4, 2)));
+        assertTrue(isBlue(derived.getRGB(4, 13)));
+    }
+
+    @Test
+    void mirroredPhotosAreFlippedBack() throws IOException {
+        BufferedImage derived = renderThumbnail(2);
+
+        assertEquals(16, derived.getWidth());
+        assertTrue(isBlue(derived.getRGB(2, 4)));
+        assertTrue(isRed(derived.getRGB(13, 4)));
+    }
+
+    // A 64x32 JPEG, red on the left and blue on the right, tagged with the given orientation (0 = no EXIF)
+    private BufferedImage renderThumbnail(int orientation) throws IOException {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 32, 32);
+        g.setColor(Color.BLUE);
+        g.fillRect(32, 0, 32, 32);
+        g.dispose();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", jpeg);
+
+        Path source = dir.resolve("source.jpg");
+        Files.write(source, orientation == 0 ? jpeg.toByteArray() : withOrientation(jpeg.toByteArray(), orientation));
+        ImageDerivativeService.Derivatives derivatives = service.render(source, dir, "photo");
+        return ImageIO.read(dir.resolve(derivatives.getThumbnail()).toFile());
+    }
+
+    // Inserts a big-endian EXIF APP1 segment holding only IFD0 with the Orientation tag right after SOI
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        ByteBuffer tiff = ByteBuffer.allocate(26);
+        tiff.put(new byte[] { 'M', 'M', 0, 42 }).putInt(8);
+        tiff.putShort((short) 1);
+        tiff.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        tiff.putInt(0);
+        byte[] exif = tiff.array();
+
+        ByteBuffer out = ByteBuffer.allocate(jpeg.length + 4 + 6 + exif.length);
+        out.put(jpeg, 0, 2);
+        out.put((byte) 0xFF).put((byte) 0xE1).putShort((short) (2 + 6 + exif.length));
+        out.put(new byte[] { 'E', 'x', 'i', 'f', 0, 0 }).put(exif);
+        out.put(jpeg, 2, jpeg.length - 2);
+        return out.array();
+    }
+
+    private static boolean isRed(int rgb) {
+        Color c = new Color(rgb);
+        return c.getRed() > 200 && c.getBlue() < 60;
+    }
+
+    private static boolean isBlue(int rgb) {
+        Color c = new Color(rgb);
+        return c.getBlue() > 200 && c.getRed() < 60;
+    }
+}
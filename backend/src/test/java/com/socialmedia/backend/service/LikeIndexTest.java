@@ -0,0 +1,131 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.LikeRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LikeIndexTest {
+    private final LikeRepository likeRepository = mock(LikeRepository.class);
+    private final LikeIndex index = new LikeIndex(likeRepository, 1000, 600);
+
+    @Test
+    void loadsUncachedPostsInOneQueryAndPatchesCachedOnes() {
+        when(likeRepository.findLikersByPostIds(any())).thenReturn(rows(new Object[] { 1L, 7L }));
+
+        Map<Long, LikerBitmap> first = index.forPosts(List.of(1L, 2L));
+        index.onLike(1L, 8L, true);
+        index.onLike(1L, 7L, false);
+        Map<Long, LikerBitmap> second = index.forPosts(List.of(1L, 2L));
+
+        assertEquals(0, second.get(2L).cardinality());
+        assertTrue(second.get(1L).contains(8L));
+        assertFalse(second.get(1L).contains(7L));
+        assertTrue(first.get(1L) == second.get(1L));
+    }
+
+    @Test
+    void likeCommittedDuringALoadIsNotLost() {
+        // The query reads its snapshot, then the like commits before the bitmap is cached
+        when(likeRepository.findLikersByPostIds(any()))
+                .thenAnswer(invocation -> {
+                    List<Object[]> snapshot = rows();
+                    index.onLike(1L, 42L, true);
+                    return snapshot;
+                })
+                .thenReturn(rows(new Object[] { 1L, 42L }));
+
+        index.forPosts(List.of(1L));
+
+        assertTrue(index.forPosts(List.of(1L)).get(1L).contains(42L));
+    }
+
+    @Test
+    void unlikeCommittedDuringALoadIsNotLost() {
+        when(likeRepository.findLikersByPostIds(any()))
+                .thenAnswer(invocation -> {
+                    List<Object[]> snapshot = rows(new Object[] { 1L, 42L });
+                    index.onLike(1L, 42L, false);
+                    return snapshot;
+                })
+                .thenReturn(rows());
+
+        index.forPosts(List.of(1L));
+
+        assertFalse(index.forPosts(List.of(1L)).get(1L).contains(42L));
+    }
+
+    @Test
+    void concurrentTogglesAndLoadsConvergeOnTheCommittedState() throws Exception {
+        // The "table" holds the committed likes; the index must agree with it once toggles stop
+        Map<Long, Boolean> table = new ConcurrentHashMap<>();
+        when(likeRepository.findLikersByPostIds(any())).thenAnswer(invocation -> {
+            List<Object[]> snapshot = new ArrayList<>();
+            table.forEach((userId, liked) -> {
+                if (liked) {
+                    snapshot.add(new Object[] { 1L, userId });
+                }
+            });
+            Thread.yield();
+            return snapshot;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            long userBase = t * 1000L;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (long u = userBase; u < userBase + 500; u++) {
+                    table.put(u, true);
+                    index.onLike(1L, u, true);
+                    if (u % 3 == 0) {
+                        table.put(u, false);
+                        index.onLike(1L, u, false);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (int t = 0; t < 2; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 500; i++) {
+                    index.invalidate(1L);
+                    index.forPosts(List.of(1L));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        LikerBitmap bitmap = index.forPosts(List.of(1L)).get(1L);
+        long expected = table.values().stream().filter(liked -> liked).count();
+        assertEquals(expected, bitmap.cardinality());
+        table.forEach((userId, liked) -> assertEquals(liked, bitmap.contains(userId)));
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
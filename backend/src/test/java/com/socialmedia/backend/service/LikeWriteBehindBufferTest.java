@@ -0,0 +1,159 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.LikeRepository;
+import com.socialmedia.backend.repository.PostRepository;
+import com.socialmedia.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LikeWriteBehindBufferTest {
+    private final Set<String> likesTable = ConcurrentHashMap.newKeySet();
+    private final LikeRepository likeRepository = mock(LikeRepository.class);
+    private final LikeIndex likeIndex = mock(LikeIndex.class);
+    private final LikeWriteBehindBuffer buffer = newBuffer(likeIndex);
+
+    LikeWriteBehindBufferTest() {
+        when(likeRepository.existsByUserIdAndPostId(anyLong(), anyLong()))
+                .thenAnswer(call -> likesTable.contains(call.getArgument(0) + ":" + call.getArgument(1)));
+        when(likeIndex.cachedState(anyLong(), anyLong())).thenReturn(null);
+    }
+
+    private LikeWriteBehindBuffer newBuffer(LikeIndex index) {
+        return new LikeWriteBehindBuffer(new FakeJdbcTemplate(), mock(PlatformTransactionManager.class),
+                likeRepository, mock(PostRepository.class), mock(UserRepository.class),
+                mock(NotificationService.class), index, true);
+    }
+
+    @Test
+    void togglesOnARenderedPostReadTheBitmapInsteadOfTheTable() {
+        likesTable.add("1:10");
+        when(likeRepository.findLikersByPostIds(any())).thenReturn(new ArrayList<>(List.of(new Object[][] { { 10L, 1L } })));
+        LikeIndex index = new LikeIndex(likeRepository, 100, 600);
+        index.forPosts(List.of(10L)); // as when the post was rendered
+        LikeWriteBehindBuffer indexed = newBuffer(index);
+
+        assertFalse(indexed.toggle(1L, 10L));
+        assertTrue(indexed.toggle(2L, 10L));
+
+        verify(likeRepository, never()).existsByUserIdAndPostId(anyLong(), anyLong());
+    }
+
+    @Test
+    void lastToggleWinsAndOnlyNetChangesAreWritten() {
+        assertTrue(buffer.toggle(1L, 10L));
+        assertFalse(buffer.toggle(1L, 10L));
+        assertTrue(buffer.toggle(1L, 10L));
+        assertTrue(buffer.toggle(2L, 10L));
+        assertFalse(buffer.toggle(2L, 10L));
+
+        buffer.flush();
+
+        assertEquals(Set.of("1:10"), likesTable);
+        assertFalse(buffer.toggle(1L, 10L));
+        assertEquals(Boolean.FALSE, buffer.pendingState(1L, 10L));
+    }
+
+    @Test
+    void togglesDuringAFlushAreNeverLost() throws Exception {
+        int threads = 4;
+        int posts = 64;
+        int rounds = 1000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger wrongStates = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Map<Long, Boolean>> expected = new ArrayList<>();
+        List<Thread> togglers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            long userId = t + 1;
+            Map<Long, Boolean> state = new HashMap<>();
+            expected.add(state);
+            togglers.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int round = 0; round < rounds; round++) {
+                    for (long postId = 1; postId <= posts; postId++) {
+                        boolean want = !state.getOrDefault(postId, false);
+                        if (buffer.toggle(userId, postId) != want) {
+                            wrongStates.incrementAndGet();
+                            want = !want;
+                        }
+                        state.put(postId, want);
+                    }
+                }
+            }));
+        }
+        Thread flusher = new Thread(() -> {
+            awaitQuietly(start);
+            while (running.get()) {
+                buffer.flush();
+            }
+        });
+
+        togglers.forEach(Thread::start);
+        flusher.start();
+        start.countDown();
+        for (Thread toggler : togglers) {
+            toggler.join();
+        }
+        running.set(false);
+        flusher.join();
+        buffer.flush();
+
+        assertEquals(0, wrongStates.get(), "toggles that read a stale state");
+        for (int t = 0; t < threads; t++) {
+            for (Map.Entry<Long, Boolean> entry : expected.get(t).entrySet()) {
+                assertEquals(entry.getValue(), likesTable.contains((t + 1) + ":" + entry.getKey()),
+                        "user " + (t + 1) + " post " + entry.getKey());
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Applies the flush's batches to an in-memory likes table
+    private class FakeJdbcTemplate extends JdbcTemplate {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            int[] rows = new int[batchArgs.size()];
+            for (int i = 0; i < rows.length; i++) {
+                Object[] args = batchArgs.get(i);
+                String key = args[0] + ":" + args[1];
+                if (sql.startsWith("INSERT")) {
+                    rows[i] = likesTable.add(key) ? 1 : 0;
+                } else if (sql.startsWith("DELETE")) {
+                    rows[i] = likesTable.remove(key) ? 1 : 0;
+                } else {
+                    rows[i] = 1;
+                }
+            }
+            return rows;
+        }
+    }
+}
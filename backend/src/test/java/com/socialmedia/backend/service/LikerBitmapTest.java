@@ -0,0 +1,119 @@
+package com.socialmedia.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LikerBitmapTest {
+
+    @Test
+    void matchesAHashSetUnderRandomAddsAndRemoves() {
+        Random random = new Random(42);
+        for (int round = 0; round < 20; round++) {
+            LikerBitmap bitmap = new LikerBitmap();
+            Set<Long> expected = new HashSet<>();
+            // Mostly ids inside two 65536-wide containers, so both cross the 4096 array/bitset boundary
+            for (int op = 0; op < 30_000; op++) {
+                long id = randomId(random);
+                boolean add = op < 15_000 ? random.nextInt(4) != 0 : random.nextInt(4) == 0;
+                if (add) {
+                    assertEquals(expected.add(id), bitmap.add(id), "add " + id);
+                } else {
+                    assertEquals(expected.remove(id), bitmap.remove(id), "remove " + id);
+                }
+                if (op % 997 == 0) {
+                    assertSameContents(expected, bitmap);
+                }
+            }
+            assertSameContents(expected, bitmap);
+        }
+    }
+
+    @Test
+    void containerGoesToABitsetAbove4096AndBackWhenItEmpties() {
+        LikerBitmap bitmap = new LikerBitmap();
+        for (long id = 0; id < 4096; id++) {
+            bitmap.add(id);
+        }
+        long asArray = bitmap.memoryBytes();
+        bitmap.add(4096);
+        long asBitset = bitmap.memoryBytes();
+        assertTrue(asBitset >= 8192, "bitset container should hold 8 KB, was " + asBitset);
+        assertTrue(asBitset <= asArray + 64, asArray + " -> " + asBitset);
+
+        for (long id = 0; id <= 2048; id++) {
+            assertTrue(bitmap.remove(id));
+        }
+        assertTrue(bitmap.memoryBytes() < asBitset, "dropping to half the threshold should leave the bitset");
+        assertEquals(2048, bitmap.cardinality());
+        for (long id = 2049; id <= 4096; id++) {
+            assertTrue(bitmap.contains(id));
+        }
+        assertFalse(bitmap.contains(2048));
+    }
+
+    @Test
+    void sparseIdsStayCompact() {
+        LikerBitmap bitmap = new LikerBitmap();
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            bitmap.add(random.nextInt(Integer.MAX_VALUE));
+        }
+        // One container per id would cost far more than the ids themselves
+        assertTrue(bitmap.memoryBytes() <= 64 + 256 * 8L, "sparse set used " + bitmap.memoryBytes());
+
+        // Past the sparse limit, widely spread ids get one small array container each
+        for (int i = 0; i < 1000; i++) {
+            bitmap.add(random.nextInt(Integer.MAX_VALUE));
+        }
+        assertTrue(bitmap.memoryBytes() < 1200 * 100L, "spread set used " + bitmap.memoryBytes());
+        assertTrue(bitmap.cardinality() > 1150);
+    }
+
+    @Test
+    void emptiedContainersAreDropped() {
+        LikerBitmap bitmap = new LikerBitmap();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(i * 70_000L); // a container each once past the sparse limit
+        }
+        ids.forEach(bitmap::add);
+        long full = bitmap.memoryBytes();
+        ids.subList(0, 299).forEach(bitmap::remove);
+
+        assertEquals(1, bitmap.cardinality());
+        assertTrue(bitmap.contains(299 * 70_000L));
+        assertTrue(bitmap.memoryBytes() < full);
+    }
+
+    private static long randomId(Random random) {
+        int bucket = random.nextInt(10);
+        if (bucket < 5) {
+            return random.nextInt(6000); // container 0
+        }
+        if (bucket < 9) {
+            return 65_536L * 3 + random.nextInt(9000); // container 3, denser
+        }
+        return random.nextInt(Integer.MAX_VALUE); // scattered
+    }
+
+    private static void assertSameContents(Set<Long> expected, LikerBitmap bitmap) {
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (Long id : expected) {
+            assertTrue(bitmap.contains(id), "missing " + id);
+        }
+        for (long id = 0; id < 9000; id++) {
+            assertEquals(expected.contains(id), bitmap.contains(id), "id " + id);
+            long dense = 65_536L * 3 + id;
+            assertEquals(expected.contains(dense), bitmap.contains(dense), "id " + dense);
+        }
+    }
+}
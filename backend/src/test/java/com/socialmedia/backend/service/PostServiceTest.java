@@ -0,0 +1,262 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.dto.FeedCursor;
+import com.socialmedia.backend.dto.PostPageResponse;
+import com.socialmedia.backend.dto.PostResponse;
+import com.socialmedia.backend.model.Post;
+import com.socialmedia.backend.model.User;
+import com.socialmedia.backend.repository.LikeRepository;
+import com.socialmedia.backend.repository.PostRepository;
+import com.socialmedia.backend.security.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PostServiceTest {
+    @Mock PostRepository postRepository;
+    @Mock LikeRepository likeRepository;
+    @Mock CustomUserDetailsService customUserDetailsService;
+    @Mock NotificationService notificationService;
+    @Mock PostCache postCache;
+    @Mock LikeWriteBehindBuffer likeBuffer;
+    @Mock FeedRankingService feedRankingService;
+    @Mock TrendingService trendingService;
+    @Mock LikeIndex likeIndex;
+    @Mock ShareCounter shareCounter;
+    @Mock CommentPreviewCache commentPreviewCache;
+    @Mock FileUploadService fileUploadService;
+    @Mock ChunkedUploadService chunkedUploadService;
+
+    @InjectMocks PostService postService;
+
+    private AuthenticatedUser viewer;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("viewer");
+        viewer = new AuthenticatedUser(user);
+        Post post = new Post();
+        post.setId(1L);
+        post.setUser(new User());
+        when(customUserDetailsService.getReference(viewer)).thenReturn(user);
+        when(postRepository.findByIdAndDeletedAtIsNull(1L)).thenReturn(Optional.of(post));
+        when(likeRepository.existsByUserIdAndPostId(anyLong(), anyLong())).thenReturn(false);
+
+        // Post 2 is the viewer's share of post 3
+        Post root = new Post();
+        root.setId(3L);
+        Post share = new Post();
+        share.setId(2L);
+        share.setUser(user);
+        share.setOriginalPost(root);
+        share.setRootPost(root);
+        when(postRepository.findByIdAndDeletedAtIsNull(2L)).thenReturn(Optional.of(share));
+        when(postRepository.markDeleted(anyLong(), any())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void likeReachesInMemoryViewsOnlyAfterCommit() {
+        assertTrue(postService.toggleLike(1L, viewer));
+        verify(likeIndex, never()).onLike(1L, 7L, true);
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+        verify(likeIndex).onLike(1L, 7L, true);
+        verify(postCache).adjustLikes(1L, 1);
+        verify(feedRankingService).onLike(1L, 1);
+        verify(trendingService).onLike(1L);
+    }
+
+    @Test
+    void rolledBackLikeLeavesInMemoryViewsAlone() {
+        postService.toggleLike(1L, viewer);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(likeIndex, never()).onLike(anyLong(), anyLong(), anyBoolean());
+        verify(postCache, never()).adjustLikes(anyLong(), anyInt());
+        verify(trendingService, never()).onLike(anyLong());
+    }
+
+    @Test
+    void deletedPostLeavesInMemoryViewsOnlyAfterCommit() {
+        postService.deletePost(2L, viewer);
+        verify(postCache, never()).invalidate(2L);
+        verify(trendingService, never()).onPostDeleted(2L);
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+
+        verify(postCache).invalidate(2L);
+        verify(likeIndex).invalidate(2L);
+        verify(commentPreviewCache).invalidate(2L);
+        verify(feedRankingService).onPostDeleted(2L);
+        verify(trendingService).onPostDeleted(2L);
+        verify(postCache).adjustShares(3L, -1);
+        verify(feedRankingService).onShare(3L, -1);
+    }
+
+    @Test
+    void rolledBackDeleteLeavesInMemoryViewsAlone() {
+        postService.deletePost(2L, viewer);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(postCache, never()).invalidate(anyLong());
+        verify(postCache, never()).adjustShares(anyLong(), anyInt());
+        verify(feedRankingService, never()).onShare(anyLong(), anyInt());
+        verify(feedRankingService, never()).onPostDeleted(anyLong());
+        verify(trendingService, never()).onPostDeleted(anyLong());
+    }
+
+    @Test
+    void failedClaimReleasesImagesAlreadyStored() {
+        when(fileUploadService.saveImages(any())).thenReturn(List.of(derivatives("a")));
+        when(chunkedUploadService.claim(any(), any())).thenThrow(new RuntimeException("Upload not found"));
+
+        assertThrows(RuntimeException.class,
+                () -> postService.createPost(viewer, "hi", new MultipartFile[] { image() }, List.of("u1")));
+
+        verify(fileUploadService).release("a");
+        verify(postRepository, never()).save(any());
+    }
+
+    @Test
+    void failedSaveReleasesStoredAndClaimedImages() {
+        when(fileUploadService.saveImages(any())).thenReturn(List.of(derivatives("a")));
+        when(chunkedUploadService.claim(any(), any())).thenReturn(List.of(derivatives("b")));
+        when(postRepository.save(any())).thenThrow(new DataIntegrityViolationException("save failed"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> postService.createPost(viewer, "hi", new MultipartFile[] { image() }, List.of("u1")));
+
+        verify(fileUploadService).release("a");
+        verify(fileUploadService).release("b");
+    }
+
+    private static ImageDerivativeService.Derivatives derivatives(String name) {
+        return new ImageDerivativeService.Derivatives(name + "-thumb", name + "-feed", name);
+    }
+
+    private static MultipartFile image() {
+        return new MockMultipartFile("images", "a.jpg", "image/jpeg", new byte[] { 1 });
+    }
+
+    @Test
+    void bufferedLikeOnARenderedPostLoadsNoPost() {
+        when(likeBuffer.isEnabled()).thenReturn(true);
+        when(postCache.get(1L)).thenReturn(new PostResponse());
+        when(likeBuffer.toggle(7L, 1L)).thenReturn(true);
+
+        assertTrue(postService.toggleLike(1L, viewer));
+
+        verify(postRepository, never()).findByIdAndDeletedAtIsNull(anyLong());
+        verify(postRepository, never()).existsByIdAndDeletedAtIsNull(anyLong());
+    }
+
+    @Test
+    void bufferedLikeOnAnUncachedPostChecksItStillExists() {
+        when(likeBuffer.isEnabled()).thenReturn(true);
+        when(postRepository.existsByIdAndDeletedAtIsNull(1L)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> postService.toggleLike(1L, viewer));
+
+        verify(likeBuffer, never()).toggle(anyLong(), anyLong());
+        verify(postRepository, never()).findByIdAndDeletedAtIsNull(anyLong());
+    }
+
+    @Test
+    void rankedPagesKeepTheOrderOfTheFirstPage() {
+        // Post 3 overtakes post 2 between the two requests
+        when(feedRankingService.ranking())
+                .thenReturn(new long[] { 1, 2, 3, 4, 5 })
+                .thenReturn(new long[] { 1, 3, 2, 4, 5 });
+        when(feedRankingService.keepSnapshot(any())).thenReturn("s1");
+        when(feedRankingService.snapshot("s1")).thenReturn(new long[] { 1, 2, 3, 4, 5 });
+        servePostsFromCache();
+
+        PostPageResponse first = postService.getRankedFeed(null, 2, null);
+        PostPageResponse second = postService.getRankedFeed(first.getNextCursor(), 2, null);
+        PostPageResponse third = postService.getRankedFeed(second.getNextCursor(), 2, null);
+
+        assertEquals(List.of(1L, 2L), ids(first));
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertEquals(List.of(5L), ids(third));
+        assertNull(third.getNextCursor());
+        verify(feedRankingService).ranking();
+    }
+
+    @Test
+    void expiredRankingSnapshotContinuesFromTheLiveRanking() {
+        when(feedRankingService.ranking()).thenReturn(new long[] { 1, 2, 3, 4, 5 });
+        when(feedRankingService.keepSnapshot(any())).thenReturn("s1", "s2");
+        servePostsFromCache();
+
+        PostPageResponse first = postService.getRankedFeed(null, 2, null);
+        PostPageResponse second = postService.getRankedFeed(first.getNextCursor(), 2, null); // s1 has expired
+
+        assertEquals(List.of(3L, 4L), ids(second));
+        assertThrows(FeedCursor.InvalidCursorException.class, () -> postService.getRankedFeed("not a cursor", 2, null));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void servePostsFromCache() {
+        when(postCache.get(anyLong())).thenAnswer(call -> {
+            PostResponse template = new PostResponse();
+            template.setId(call.getArgument(0));
+            return template;
+        });
+        when(likeIndex.forPosts(any())).thenAnswer(call -> {
+            Map<Long, LikerBitmap> likers = new HashMap<>();
+            for (Long id : (Collection<Long>) call.getArgument(0)) {
+                likers.put(id, new LikerBitmap());
+            }
+            return likers;
+        });
+    }
+
+    private static List<Long> ids(PostPageResponse page) {
+        return page.getPosts().stream().map(PostResponse::getId).toList();
+    }
+}
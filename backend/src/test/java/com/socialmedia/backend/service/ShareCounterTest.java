@@ -0,0 +1,99 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ShareCounterTest {
+    private final Map<Long, Long> shareCounts = new ConcurrentHashMap<>();
+    private final ShareCounter counter = new ShareCounter(mock(PostRepository.class), new FakeJdbcTemplate(), true);
+
+    @Test
+    void unbufferedChangesAreSingleAtomicUpdates() {
+        PostRepository postRepository = mock(PostRepository.class);
+        new ShareCounter(postRepository, new FakeJdbcTemplate(), false).add(7L, 1);
+
+        verify(postRepository).adjustShareCount(7L, 1);
+    }
+
+    @Test
+    void thousandConcurrentSharersOfOnePostAreAllCounted() throws Exception {
+        int sharers = 1000;
+        int sharesEach = 100;
+        long postId = 42L;
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < sharers; i++) {
+            threads.add(new Thread(() -> {
+                awaitQuietly(start);
+                for (int j = 0; j < sharesEach; j++) {
+                    counter.add(postId, 1);
+                    // Let the flusher catch up so the adder keeps going idle and being dropped
+                    Thread.yield();
+                }
+            }));
+        }
+        Thread flusher = new Thread(() -> {
+            awaitQuietly(start);
+            while (running.get()) {
+                counter.flush();
+            }
+        });
+
+        threads.forEach(Thread::start);
+        flusher.start();
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        flusher.join();
+        counter.flush();
+
+        assertEquals((long) sharers * sharesEach, shareCounts.getOrDefault(postId, 0L));
+    }
+
+    @Test
+    void sharesAndUnsharesNetOutPerPost() {
+        counter.add(1L, 1);
+        counter.add(1L, 1);
+        counter.add(2L, 1);
+        counter.add(2L, -1);
+        counter.flush();
+        counter.flush();
+
+        assertEquals(Map.of(1L, 2L), shareCounts);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Applies the flushed share_count deltas to an in-memory posts table
+    private class FakeJdbcTemplate extends JdbcTemplate {
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            for (Object[] args : batchArgs) {
+                shareCounts.merge((Long) args[1], (Long) args[0], Long::sum);
+            }
+            return new int[batchArgs.size()];
+        }
+    }
+}
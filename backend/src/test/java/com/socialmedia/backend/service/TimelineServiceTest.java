@@ -0,0 +1,95 @@
+package com.socialmedia.backend.service;
+
+import com.socialmedia.backend.repository.PostRepository;
+import com.socialmedia.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TimelineServiceTest {
+    private static final long READER = 1L;
+    private static final long AUTHOR = 100L;
+    private static final long THRESHOLD = 2;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TimelineService timelines = new TimelineService(postRepository, userRepository,
+            50, 1000, 60, THRESHOLD, 50);
+    private final AtomicLong followers = new AtomicLong();
+    private final List<Object[]> authorPosts = new ArrayList<>();
+    private final LocalDateTime start = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    TimelineServiceTest() {
+        when(userRepository.countFollowers(AUTHOR)).thenAnswer(call -> followers.get());
+        when(userRepository.findFollowerIds(AUTHOR)).thenReturn(List.of(READER));
+        when(userRepository.findFollowedIdsWithFollowersAbove(eq(READER), anyLong()))
+                .thenAnswer(call -> followers.get() > THRESHOLD ? List.of(AUTHOR) : List.of());
+        when(postRepository.findTimelineEntries(eq(READER), any())).thenAnswer(call -> new ArrayList<>(authorPosts));
+        when(postRepository.findRecentEntriesByAuthor(eq(AUTHOR), any())).thenAnswer(call -> new ArrayList<>(authorPosts));
+    }
+
+    @Test
+    void postsOfAnAuthorWhoBecameACelebrityReachCachedTimelines() {
+        followers.set(1);
+        post(1L);
+        assertEquals(List.of(1L), read());
+
+        followers.set(3);
+        post(2L);
+
+        assertEquals(List.of(2L, 1L), read());
+    }
+
+    @Test
+    void postsPulledBeforeAnAuthorDropsBelowTheThresholdStayVisible() {
+        followers.set(3);
+        post(1L);
+        assertEquals(List.of(1L), read());
+        post(2L);
+
+        followers.set(1);
+        timelines.onFollowersChanged(AUTHOR);
+        post(3L);
+
+        assertEquals(List.of(3L, 2L, 1L), read());
+    }
+
+    @Test
+    void crossingsThroughFollowsAreSeenWithoutAPost() {
+        followers.set(3);
+        post(1L);
+
+        followers.set(1);
+        timelines.onFollowersChanged(AUTHOR);
+        assertEquals(List.of(1L), read());
+
+        followers.set(3);
+        timelines.onFollowersChanged(AUTHOR);
+        post(2L);
+
+        assertEquals(List.of(2L, 1L), read());
+    }
+
+    // The author publishes a post: it is committed, then fanned out
+    private void post(long postId) {
+        LocalDateTime createdAt = start.plusMinutes(postId);
+        authorPosts.add(0, new Object[] { postId, createdAt });
+        timelines.fanOut(AUTHOR, postId, createdAt);
+    }
+
+    private List<Long> read() {
+        TimelineBuffer.Slice slice = timelines.read(READER, null, 10);
+        return Arrays.stream(slice.getPostIds(), 0, slice.getSize()).boxed().toList();
+    }
+}
@@ -0,0 +1,62 @@
+package com.socialmedia.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TrendingServiceTest {
+    private static final long MINUTE = 60_000;
+
+    private final AtomicLong now = new AtomicLong(1_000 * MINUTE);
+    private final TrendingService trending = new TrendingService(5, 4, 1024, 2, now::get);
+
+    @Test
+    void postsTrendingNowReplaceThoseWhoseWindowExpired() {
+        for (int i = 0; i < 50; i++) {
+            trending.onShare(1L);
+            trending.onShare(2L);
+        }
+        assertEquals(List.of(1L, 2L), trending.topPosts(10).stream().sorted().toList());
+
+        now.addAndGet(10 * MINUTE);
+        trending.onLike(3L);
+        trending.onLike(4L);
+        trending.onLike(4L);
+
+        assertEquals(List.of(4L, 3L), trending.topPosts(10));
+    }
+
+    @Test
+    void agingEstimatesLetNewPostsOvertakeOlderOnes() {
+        for (int i = 0; i < 10; i++) {
+            trending.onLike(1L);
+        }
+        now.addAndGet(MINUTE);
+        for (int i = 0; i < 3; i++) {
+            trending.onLike(2L);
+        }
+
+        // Post 1's likes leave the window while post 2's are still in it
+        now.addAndGet(4 * MINUTE);
+        for (int i = 0; i < 2; i++) {
+            trending.onLike(3L);
+        }
+
+        assertEquals(List.of(2L, 3L), trending.topPosts(10));
+    }
+
+    @Test
+    void hotPostsInsideTheWindowKeepTheirPlace() {
+        for (int i = 0; i < 10; i++) {
+            trending.onLike(1L);
+            trending.onLike(2L);
+        }
+        now.addAndGet(2 * MINUTE);
+        trending.onLike(3L);
+
+        assertEquals(List.of(1L, 2L), trending.topPosts(10).stream().sorted().toList());
+    }
+}
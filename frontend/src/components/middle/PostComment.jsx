@@ -2,31 +2,34 @@ import { useEffect, useState } from "react";
 
 const PostComment = ({ postId, currentUser, postOwnerUsername, onClose }) => {
   const [comments, setComments] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [commentValue, setCommentValue] = useState("");
   const [editingId, setEditingId] = useState(null);
   const [editingValue, setEditingValue] = useState("");
   const [loading, setLoading] = useState(true);
   const [submitting, setSubmitting] = useState(false);
 
-  const fetchComments = async () => {
-    setLoading(true);
+  const fetchComments = async (cursor = null) => {
+    if (!cursor) setLoading(true);
     const token = localStorage.getItem("token");
     try {
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
       const res = await fetch(
-        `http://localhost:8080/api/posts/${postId}/comments`,
+        `http://localhost:8080/api/posts/${postId}/comments${query}`,
         {
           headers: { Authorization: `Bearer ${token}` },
         }
       );
       if (!res.ok) {
-        setComments([]);
+        if (!cursor) setComments([]);
         return;
       }
       const data = await res.json();
-      setComments(data);
+      setComments((prev) => (cursor ? [...prev, ...data.comments] : data.comments));
+      setNextCursor(data.nextCursor);
     } catch (error) {
       console.error("Error fetching comments:", error);
-      setComments([]);
+      if (!cursor) setComments([]);
     }
     setLoading(false);
   };
@@ -320,6 +323,14 @@ const PostComment = ({ postId, currentUser, postOwnerUsername, onClose }) => {
                   </div>
                 </div>
               ))}
+              {nextCursor && (
+                <button
+                  onClick={() => fetchComments(nextCursor)}
+                  className="text-sm text-blue-600 dark:text-blue-400 hover:text-blue-700 dark:hover:text-blue-300 font-medium"
+                >
+                  Load more comments
+                </button>
+              )}
             </div>
           )}
         </div>
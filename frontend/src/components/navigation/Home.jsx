@@ -4,75 +4,84 @@ import PostCard from "../middle/PostCard";
 
 function Home() {
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   let currentUser = {};
   try {
     currentUser = JSON.parse(localStorage.getItem("user")) || {};
   } catch (e) {}
 
-  const fetchPosts = async () => {
-    setLoading(true);
+  // Without a cursor the feed restarts at the newest page; with one, the page is appended
+  const fetchPosts = async (cursor = null) => {
+    if (cursor) setLoadingMore(true);
+    else setLoading(true);
     try {
       const token = localStorage.getItem("token");
-      const res = await fetch("http://localhost:8080/api/posts", {
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+      const res = await fetch(`http://localhost:8080/api/posts${query}`, {
         headers: { Authorization: `Bearer ${token}` },
       });
       const data = await res.json();
-      setPosts(
-        data.map((post) => ({
-          id: post.id,
-          user: {
-            username: post.user?.username,
-            fullName: post.user?.fullName,
-            profileImage: post.user?.profileImage
-              ? post.user.profileImage.startsWith("http")
-                ? post.user.profileImage
-                : `http://localhost:8080/uploads/${post.user.profileImage}`
-              : "/default-profile.png",
-          },
-          caption: post.content,
-          images: post.imageUrl
-            ? post.imageUrl
-                .split(",")
-                .map((img) =>
-                  img.startsWith("http")
-                    ? img
-                    : `http://localhost:8080/uploads/${img}`
-                )
-            : [],
-          createdAt: post.createdAt,
-          likes: post.likes,
-          comments: post.comments,
-          isLiked: post.isLiked,
-          shareCount: post.shareCount,
-          originalPostId: post.originalPostId || null,
-          originalUser: post.originalUser
-            ? {
-                username: post.originalUser.username,
-                fullName: post.originalUser.fullName,
-                profileImage: post.originalUser.profileImage
-                  ? post.originalUser.profileImage.startsWith("http")
-                    ? post.originalUser.profileImage
-                    : `http://localhost:8080/uploads/${post.originalUser.profileImage}`
-                  : "/default-profile.png",
-              }
-            : null,
-          originalContent: post.originalContent,
-          originalImages: post.originalImageUrl
-            ? post.originalImageUrl
-                .split(",")
-                .map((img) =>
-                  img.startsWith("http")
-                    ? img
-                    : `http://localhost:8080/uploads/${img}`
-                )
-            : [],
-        }))
-      );
+      const page = data.posts.map((post) => ({
+        id: post.id,
+        user: {
+          username: post.user?.username,
+          fullName: post.user?.fullName,
+          profileImage: (post.user?.profileThumbnail || post.user?.profileImage)
+            ? (post.user.profileThumbnail || post.user.profileImage).startsWith("http")
+              ? post.user.profileThumbnail || post.user.profileImage
+              : `http://localhost:8080/uploads/${post.user.profileThumbnail || post.user.profileImage}`
+            : "/default-profile.png",
+        },
+        caption: post.content,
+        images: (post.feedImageUrl || post.imageUrl)
+          ? (post.feedImageUrl || post.imageUrl)
+              .split(",")
+              .map((img) =>
+                img.startsWith("http")
+                  ? img
+                  : `http://localhost:8080/uploads/${img}`
+              )
+          : [],
+        createdAt: post.createdAt,
+        likes: post.likes,
+        comments: post.comments,
+        isLiked: post.isLiked,
+        shareCount: post.shareCount,
+        originalPostId: post.originalPostId || null,
+        originalUser: post.originalUser
+          ? {
+              username: post.originalUser.username,
+              fullName: post.originalUser.fullName,
+              profileImage: post.originalUser.profileImage
+                ? post.originalUser.profileImage.startsWith("http")
+                  ? post.originalUser.profileImage
+                  : `http://localhost:8080/uploads/${post.originalUser.profileImage}`
+                : "/default-profile.png",
+            }
+          : null,
+        originalContent: post.originalContent,
+        originalImages: (post.originalFeedImageUrl || post.originalImageUrl)
+          ? (post.originalFeedImageUrl || post.originalImageUrl)
+              .split(",")
+              .map((img) =>
+                img.startsWith("http")
+                  ? img
+                  : `http://localhost:8080/uploads/${img}`
+              )
+          : [],
+      }));
+      setPosts((prev) => (cursor ? [...prev, ...page] : page));
+      setNextCursor(data.nextCursor);
     } catch (err) {
-      setPosts([]);
+      if (!cursor) {
+        setPosts([]);
+        setNextCursor(null);
+      }
     }
     setLoading(false);
+    setLoadingMore(false);
   };
 
   useEffect(() => {
@@ -148,7 +157,7 @@ function Home() {
           </p>
         </div>
 
-        <PostCreate onPostCreated={fetchPosts} />
+        <PostCreate onPostCreated={() => fetchPosts()} />
 
         <div className="mt-8">
           {loading ? (
@@ -208,6 +217,17 @@ function Home() {
                   onShare={handleShare}
                 />
               ))}
+              {nextCursor && (
+                <div className="text-center">
+                  <button
+                    onClick={() => fetchPosts(nextCursor)}
+                    disabled={loadingMore}
+                    className="px-6 py-2 bg-blue-600 text-white rounded-lg hover:bg-blue-700 disabled:opacity-50 disabled:cursor-not-allowed transition-colors font-medium"
+                  >
+                    {loadingMore ? "Loading..." : "Load more posts"}
+                  </button>
+                </div>
+              )}
             </div>
           )}
         </div>
@@ -3,7 +3,9 @@ import PostCard from "../middle/PostCard";
 
 function Saved() {
   const [posts, setPosts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [loading, setLoading] = useState(true);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [error, setError] = useState(null);
 
   let currentUser = {};
@@ -11,8 +13,10 @@ function Saved() {
     currentUser = JSON.parse(localStorage.getItem("user")) || {};
   } catch (e) {}
 
-  const fetchSaved = async () => {
-    setLoading(true);
+  // Without a cursor the list restarts at the most recently saved page; with one, the page is appended
+  const fetchSaved = async (cursor = null) => {
+    if (cursor) setLoadingMore(true);
+    else setLoading(true);
     setError(null);
     const token = localStorage.getItem("token");
 
@@ -23,7 +27,8 @@ function Saved() {
     }
 
     try {
-      const res = await fetch("http://localhost:8080/api/posts/saved", {
+      const query = cursor ? `?cursor=${encodeURIComponent(cursor)}` : "";
+      const res = await fetch(`http://localhost:8080/api/posts/saved${query}`, {
         headers: { Authorization: `Bearer ${token}` },
       });
 
@@ -41,7 +46,7 @@ function Saved() {
                 )
             : [];
 
-        const mapped = data.map((post) => ({
+        const mapped = data.posts.map((post) => ({
           ...post,
           caption: post.content,
           images: mapImages(post.imageUrl),
@@ -68,7 +73,8 @@ function Saved() {
               }
             : null,
         }));
-        setPosts(mapped);
+        setPosts((prev) => (cursor ? [...prev, ...mapped] : mapped));
+        setNextCursor(data.nextCursor);
       } else if (res.status === 401) {
         setError("Please log in to view saved posts");
       } else {
@@ -79,6 +85,7 @@ function Saved() {
       setError("An error occurred while loading saved posts");
     }
     setLoading(false);
+    setLoadingMore(false);
   };
 
   useEffect(() => {
@@ -198,7 +205,7 @@ function Saved() {
           </h3>
           <p className="text-red-600 dark:text-red-400 mb-4">{error}</p>
           <button
-            onClick={fetchSaved}
+            onClick={() => fetchSaved()}
             className="px-4 py-2 bg-blue-600 text-white rounded-lg hover:bg-blue-700 transition-colors"
           >
             Try Again
@@ -348,7 +355,7 @@ function Saved() {
                   </div>
                 </div>
                 <button
-                  onClick={fetchSaved}
+                  onClick={() => fetchSaved()}
                   className="p-2 text-gray-500 dark:text-gray-400 hover:text-gray-700 dark:hover:text-gray-300 hover:bg-gray-100 dark:hover:bg-gray-700 rounded-lg transition-colors"
                   title="Refresh"
                 >
@@ -400,8 +407,17 @@ function Saved() {
               ))}
             </div>
 
-            {/* Load More Button (if needed in future) */}
-            {posts.length > 0 && (
+            {nextCursor ? (
+              <div className="text-center mt-8">
+                <button
+                  onClick={() => fetchSaved(nextCursor)}
+                  disabled={loadingMore}
+                  className="px-6 py-2 bg-blue-600 text-white rounded-lg hover:bg-blue-700 disabled:opacity-50 disabled:cursor-not-allowed transition-colors font-medium"
+                >
+                  {loadingMore ? "Loading..." : "Load more saved posts"}
+                </button>
+              </div>
+            ) : (
               <div className="text-center mt-8">
                 <p className="text-gray-500 dark:text-gray-400 text-sm">
                   You've reached the end of your saved posts